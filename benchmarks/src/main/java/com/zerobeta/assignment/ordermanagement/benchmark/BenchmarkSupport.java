@@ -0,0 +1,63 @@
+package com.zerobeta.assignment.ordermanagement.benchmark;
+
+import com.zerobeta.assignment.ordermanagement.OrdermanagementApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shared helpers for the benchmarks.
+ * Boots the application against an embedded H2 database so the benchmarks run without MySQL.
+ */
+public final class BenchmarkSupport {
+
+    public static final String SECRET_KEY = "YzJkNzJmNjlhMWFmZTQ1M2NhMzUwZTA1ZjAyMjA2YzYwYjQxZjY4ODNjMWUyNTcwYzg0MTg";
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Starts the application on a random port with an in-memory datasource.
+     *
+     * @param overrides Extra properties that take precedence over the benchmark defaults.
+     * @return The running application context; the caller is responsible for closing it.
+     */
+    public static ConfigurableApplicationContext bootApplication(Map<String, Object> overrides) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:bench-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1;MODE=MySQL");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        properties.put("spring.jpa.open-in-view", "false");
+        properties.put("spring.devtools.restart.enabled", "false");
+        properties.put("logging.level.root", "WARN");
+        properties.put("jwt.secret.key", SECRET_KEY);
+        properties.put("order.reference.node.id", "0");
+        properties.putAll(overrides);
+
+        return new SpringApplicationBuilder(OrdermanagementApplication.class)
+                .properties(properties)
+                .run();
+    }
+
+    public static ConfigurableApplicationContext bootApplication() {
+        return bootApplication(Map.of());
+    }
+
+    /**
+     * Sets a private field, mirroring how the unit tests configure services created outside Spring.
+     */
+    public static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set field " + name, e);
+        }
+    }
+}
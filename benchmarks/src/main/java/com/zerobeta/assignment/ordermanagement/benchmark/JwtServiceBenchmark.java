@@ -0,0 +1,48 @@
+package com.zerobeta.assignment.ordermanagement.benchmark;
+
+import com.zerobeta.assignment.ordermanagement.service.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of signing and verifying tokens in {@link JwtService}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String EMAIL = "bench@example.com";
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtService = new JwtService(new SimpleMeterRegistry());
+        BenchmarkSupport.setField(jwtService, "secretKey", BenchmarkSupport.SECRET_KEY);
+        BenchmarkSupport.setField(jwtService, "jwtExpirationTime", TimeUnit.HOURS.toMillis(1));
+        jwtService.init();
+        token = jwtService.generateToken(EMAIL);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(EMAIL);
+    }
+
+    @Benchmark
+    public String extractEmail() {
+        return jwtService.extractEmail(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtService.validateToken(token, EMAIL);
+    }
+}
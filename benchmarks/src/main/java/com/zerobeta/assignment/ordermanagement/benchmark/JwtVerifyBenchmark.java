@@ -0,0 +1,69 @@
+package com.zerobeta.assignment.ordermanagement.benchmark;
+
+import com.zerobeta.assignment.ordermanagement.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verify latency before and after precomputing the signing keys and the parser.
+ * <ul>
+ *     <li>{@code perCallKeyAndParser}: the previous implementation, which built a key and a parser per call.</li>
+ *     <li>{@code precomputedKeyRing}: {@link JwtService#verifyToken} with the claims cache disabled.</li>
+ *     <li>{@code cachedClaims}: {@link JwtService#verifyToken} for a token that was already verified.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerifyBenchmark {
+
+    private static final String EMAIL = "bench@example.com";
+
+    private JwtService uncachedJwtService;
+    private JwtService cachedJwtService;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        uncachedJwtService = createJwtService(0);
+        cachedJwtService = createJwtService(10_000);
+        token = cachedJwtService.generateToken(EMAIL, 1L);
+        cachedJwtService.verifyToken(token);
+    }
+
+    private static JwtService createJwtService(long claimsCacheMaxSize) {
+        JwtService jwtService = new JwtService(new SimpleMeterRegistry());
+        BenchmarkSupport.setField(jwtService, "secretKey", BenchmarkSupport.SECRET_KEY);
+        BenchmarkSupport.setField(jwtService, "jwtExpirationTime", TimeUnit.HOURS.toMillis(1));
+        BenchmarkSupport.setField(jwtService, "claimsCacheMaxSize", claimsCacheMaxSize);
+        jwtService.init();
+        return jwtService;
+    }
+
+    @Benchmark
+    public Claims perCallKeyAndParser() {
+        return Jwts.parser()
+                .setSigningKey(new SecretKeySpec(BenchmarkSupport.SECRET_KEY.getBytes(), SignatureAlgorithm.HS256.getJcaName()))
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public Claims precomputedKeyRing() {
+        return uncachedJwtService.verifyToken(token);
+    }
+
+    @Benchmark
+    public Claims cachedClaims() {
+        return cachedJwtService.verifyToken(token);
+    }
+}
@@ -0,0 +1,67 @@
+package com.zerobeta.assignment.ordermanagement.benchmark;
+
+import com.zerobeta.assignment.ordermanagement.dto.OrderRequestDTO;
+import com.zerobeta.assignment.ordermanagement.entity.User;
+import com.zerobeta.assignment.ordermanagement.repository.UserRepository;
+import com.zerobeta.assignment.ordermanagement.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the order write and read paths against an embedded H2 database.
+ * Run with {@code -prof gc} to get the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    private static final String EMAIL = "bench@example.com";
+    private static final int HISTORY_ORDERS = 500;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private OrderRequestDTO orderRequest;
+
+    @Param({"10", "50"})
+    public int pageSize;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.bootApplication();
+        orderService = context.getBean(OrderService.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        userRepository.save(new User(EMAIL, "not-a-real-hash", "Bench", "User"));
+
+        orderRequest = new OrderRequestDTO("Laptop", 1, "123 Main St, City, Country");
+        for (int i = 0; i < HISTORY_ORDERS; i++) {
+            orderService.placeOrder(EMAIL, orderRequest);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object placeOrder() {
+        return orderService.placeOrder(EMAIL, orderRequest);
+    }
+
+    @Benchmark
+    public Object getOrderHistoryFirstPage() {
+        return orderService.getOrderHistory(EMAIL, 0, pageSize);
+    }
+
+    @Benchmark
+    public Object getOrderHistoryDeepPage() {
+        return orderService.getOrderHistory(EMAIL, HISTORY_ORDERS / pageSize - 1, pageSize);
+    }
+}
@@ -0,0 +1,60 @@
+package com.zerobeta.assignment.ordermanagement.benchmark;
+
+import com.zerobeta.assignment.ordermanagement.util.PasswordValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link PasswordValidator#isValid} for an accepted password and for a password
+ * rejected by the last rule, which is the worst case for the sequence of regex checks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordValidatorBenchmark {
+
+    private PasswordValidator validator;
+    private ConstraintValidatorContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        validator = new PasswordValidator();
+        context = noOpContext();
+    }
+
+    @Benchmark
+    public boolean validPassword() {
+        return validator.isValid("Valid123!", context);
+    }
+
+    @Benchmark
+    public boolean missingSpecialCharacter() {
+        return validator.isValid("NoSpecialChar1", context);
+    }
+
+    /**
+     * A context whose methods do nothing and return further no-op proxies for the builder chain.
+     */
+    private static ConstraintValidatorContext noOpContext() {
+        return (ConstraintValidatorContext) noOp(ConstraintValidatorContext.class);
+    }
+
+    private static Object noOp(Class<?> type) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Class<?> returnType = method.getReturnType();
+            if (returnType.isInterface()) {
+                return noOp(returnType);
+            }
+            if (returnType == boolean.class) {
+                return false;
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package com.zerobeta.assignment.ordermanagement.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.zerobeta.assignment.ordermanagement.dto.APIResponseDTO;
+import com.zerobeta.assignment.ordermanagement.dto.OrderHistoryItemDTO;
+import com.zerobeta.assignment.ordermanagement.entity.Order;
+import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the order history response body, for the entity page that was
+ * returned before and for the projection page that is returned now.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    @Param({"10", "50"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private APIResponseDTO<Page<Order>> response;
+    private APIResponseDTO<Page<OrderHistoryItemDTO>> projectionResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+        List<Order> orders = new ArrayList<>(pageSize);
+        List<OrderHistoryItemDTO> items = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Order order = new Order();
+            order.setId((long) i);
+            order.setOrderReference("ORD20240101120000" + String.format("%04d", i));
+            order.setItemName("Laptop");
+            order.setQuantity(1);
+            order.setShippingAddress("123 Main St, City, Country");
+            order.setStatus(OrderStatus.NEW);
+            order.setPlacementTimestamp(LocalDateTime.now());
+            orders.add(order);
+            items.add(new OrderHistoryItemDTO(order.getId(), order.getOrderReference(), order.getItemName(),
+                    order.getQuantity(), order.getShippingAddress(), order.getStatus(), order.getPlacementTimestamp()));
+        }
+        Page<Order> page = new PageImpl<>(orders, PageRequest.of(0, pageSize), 1000);
+        response = new APIResponseDTO<>(true, "Fetched Orders Successfully", page);
+        projectionResponse = new APIResponseDTO<>(true, "Fetched Orders Successfully",
+                new PageImpl<>(items, PageRequest.of(0, pageSize), 1000));
+    }
+
+    @Benchmark
+    public byte[] serializeOrderHistory() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeOrderHistoryProjection() throws Exception {
+        return objectMapper.writeValueAsBytes(projectionResponse);
+    }
+}
@@ -0,0 +1,192 @@
+package com.zerobeta.assignment.ordermanagement.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares throughput and tail latency of the order history endpoint with request handling on
+ * platform threads and on virtual threads, under a large number of concurrent connections.
+ *
+ * Each mode boots the application, signs up a user, places some orders, and then keeps
+ * {@code bench.connections} requests in flight (closed model) for {@code bench.seconds}, after a warm-up.
+ * Virtual threads need a Java 21 runtime; on older runtimes only the platform mode is measured.
+ * Set {@code bench.datasource.url}, {@code bench.datasource.username} and {@code bench.datasource.password}
+ * to measure against MySQL, where JDBC calls actually block on the network.
+ *
+ * <pre>
+ * mvn -f benchmarks/pom.xml package exec:exec@threading -Dthreading.args="-Dbench.connections=2000"
+ * </pre>
+ */
+public final class ThreadingModeComparison {
+
+    private static final String EMAIL = "loadtest@example.com";
+    private static final String PASSWORD = "Valid123!";
+    private static final int SEED_ORDERS = 50;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ThreadingModeComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int connections = Integer.getInteger("bench.connections", 1000);
+        Duration warmup = Duration.ofSeconds(Long.getLong("bench.warmup.seconds", 10));
+        Duration measurement = Duration.ofSeconds(Long.getLong("bench.seconds", 30));
+        int poolSize = Integer.getInteger("bench.pool.size", 20);
+
+        List<Boolean> modes = Runtime.version().feature() >= 21 ? List.of(false, true) : List.of(false);
+        if (modes.size() == 1) {
+            System.out.println("Java " + Runtime.version().feature() + " has no virtual threads; measuring platform threads only.");
+        }
+
+        List<String> results = new ArrayList<>();
+        for (boolean virtualThreads : modes) {
+            Result result = run(virtualThreads, connections, poolSize, warmup, measurement);
+            results.add(result.format(virtualThreads ? "virtual" : "platform"));
+        }
+
+        System.out.printf("%n%d connections, pool size %d, %d s measured%n", connections, poolSize, measurement.toSeconds());
+        System.out.printf("%-9s %12s %10s %10s %10s %10s %8s%n", "mode", "requests/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        results.forEach(System.out::println);
+    }
+
+    private static Result run(boolean virtualThreads, int connections, int poolSize, Duration warmup,
+                              Duration measurement) throws Exception {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("spring.threads.virtual.enabled", String.valueOf(virtualThreads));
+        overrides.put("spring.datasource.hikari.maximum-pool-size", String.valueOf(poolSize));
+        overrides.put("server.tomcat.max-connections", String.valueOf(connections * 2));
+        overrides.put("server.tomcat.accept-count", String.valueOf(connections));
+        copyProperty("bench.datasource.url", "spring.datasource.url", overrides);
+        copyProperty("bench.datasource.username", "spring.datasource.username", overrides);
+        copyProperty("bench.datasource.password", "spring.datasource.password", overrides);
+
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try (ConfigurableApplicationContext context = BenchmarkSupport.bootApplication(overrides)) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientExecutor)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            String token = seed(client, baseUrl);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/order-management/orders/history?pageNo=0&pageSize=10"))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+
+            drive(client, request, connections, warmup);
+            return drive(client, request, connections, measurement);
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Keeps the given number of requests in flight until the duration has passed.
+     */
+    private static Result drive(HttpClient client, HttpRequest request, int connections, Duration duration) {
+        Recorder recorder = new Recorder(TimeUnit.SECONDS.toMicros(60), 3);
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        List<CompletableFuture<Void>> loops = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            loops.add(loop(client, request, recorder, errors, deadline));
+        }
+        long start = System.nanoTime();
+        CompletableFuture.allOf(loops.toArray(CompletableFuture[]::new)).join();
+        long elapsedNanos = System.nanoTime() - start;
+
+        return new Result(recorder.getIntervalHistogram(), errors.get(), elapsedNanos);
+    }
+
+    private static CompletableFuture<Void> loop(HttpClient client, HttpRequest request, Recorder recorder,
+                                                AtomicLong errors, long deadline) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long sent = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent));
+                    if (failure != null || response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> loop(client, request, recorder, errors, deadline));
+    }
+
+    /**
+     * Signs up and signs in the load test user and places some orders, returning the token.
+     */
+    private static String seed(HttpClient client, String baseUrl) throws Exception {
+        post(client, baseUrl + "/order-management/user/signup", null, Map.of(
+                "email", EMAIL, "password", PASSWORD, "firstName", "Load", "lastName", "Test"));
+        JsonNode signIn = post(client, baseUrl + "/order-management/user/signin", null, Map.of(
+                "email", EMAIL, "password", PASSWORD));
+        String token = signIn.path("data").asText();
+
+        for (int i = 0; i < SEED_ORDERS; i++) {
+            post(client, baseUrl + "/order-management/orders/place", token, Map.of(
+                    "itemName", "Item" + i, "quantity", 1, "shippingAddress", "123 Main St, City, Country"));
+        }
+        return token;
+    }
+
+    private static JsonNode post(HttpClient client, String url, String token, Map<String, Object> body) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("POST " + url + " failed with " + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private static void copyProperty(String from, String to, Map<String, Object> overrides) {
+        String value = System.getProperty(from);
+        if (value != null) {
+            overrides.put(to, value);
+        }
+    }
+
+    private record Result(Histogram latencies, long errors, long elapsedNanos) {
+
+        String format(String mode) {
+            double seconds = elapsedNanos / 1e9;
+            return String.format("%-9s %12.0f %10.2f %10.2f %10.2f %10.2f %8d", mode,
+                    latencies.getTotalCount() / seconds,
+                    latencies.getValueAtPercentile(50) / 1000.0,
+                    latencies.getValueAtPercentile(99) / 1000.0,
+                    latencies.getValueAtPercentile(99.9) / 1000.0,
+                    latencies.getMaxValue() / 1000.0,
+                    errors);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.zerobeta.assignment.ordermanagement.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and error counts per endpoint.
+ *
+ * Latencies are recorded in microseconds into HdrHistogram recorders, which are safe to write from
+ * the HTTP client's threads; {@link #snapshot()} starts a new interval, so the warm-up is discarded
+ * by taking a snapshot when it ends.
+ */
+final class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    private static final class Endpoint {
+        final Recorder latencies = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+    }
+
+    /**
+     * The measurements of one endpoint over an interval.
+     */
+    record Interval(String endpoint, Histogram latencies, long errors) {
+
+        double errorRate() {
+            long requests = latencies.getTotalCount();
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+    }
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Records one response, or a failure to get one.
+     *
+     * @param latencyNanos The time from the intended send time to the response.
+     * @param success      Whether the response had a 2xx status.
+     */
+    void record(String endpoint, long latencyNanos, boolean success) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        stats.latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        if (!success) {
+            stats.errors.increment();
+        }
+    }
+
+    /**
+     * Returns the measurements since the previous snapshot and starts a new interval.
+     */
+    Map<String, Interval> snapshot() {
+        Map<String, Interval> intervals = new TreeMap<>();
+        endpoints.forEach((name, stats) ->
+                intervals.put(name, new Interval(name, stats.latencies.getIntervalHistogram(), stats.errors.sumThenReset())));
+        return intervals;
+    }
+
+    /**
+     * Prints throughput, error rate and latency percentiles per endpoint.
+     */
+    static void report(Map<String, Interval> intervals, double seconds, PrintStream out) {
+        out.printf("%-10s %10s %12s %8s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "requests/s", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Interval interval : intervals.values()) {
+            Histogram latencies = interval.latencies();
+            out.printf("%-10s %10d %12.1f %7.2f%% %10.2f %10.2f %10.2f %10.2f%n", interval.endpoint(),
+                    latencies.getTotalCount(),
+                    latencies.getTotalCount() / seconds,
+                    interval.errorRate() * 100,
+                    latencies.getValueAtPercentile(50) / 1000.0,
+                    latencies.getValueAtPercentile(99) / 1000.0,
+                    latencies.getValueAtPercentile(99.9) / 1000.0,
+                    latencies.getMaxValue() / 1000.0);
+        }
+    }
+
+    /**
+     * Writes the full percentile distribution of each endpoint, in milliseconds, as {@code <endpoint>.hgrm}
+     * files that HdrHistogram's plotter can read.
+     */
+    static void writeDistributions(Map<String, Interval> intervals, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Interval interval : intervals.values()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(interval.endpoint() + ".hgrm")))) {
+                interval.latencies().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.zerobeta.assignment.ordermanagement.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerobeta.assignment.ordermanagement.OrdermanagementApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator for the signup, signin, place, history and cancel flows.
+ *
+ * Sessions start at a constant rate of {@code load.rate} per second whether or not earlier sessions have
+ * finished, as real users would, so a slow server builds up concurrent sessions and queueing shows in the
+ * latencies instead of throttling the load (coordinated omission). Each session is one of the
+ * {@link Scenario.Flow}s, chosen with the weights of {@code load.mix}, and sends the requests of the
+ * Postman collection. After a warm-up, throughput, error rate and p50/p99/p99.9 latency are reported per
+ * endpoint, and the full HdrHistogram distributions are written to {@code load.output.dir}.
+ *
+ * By default the application is booted against an embedded H2 database. Set {@code load.target.url} to
+ * load an application that is already running, or {@code load.datasource.url}, {@code load.datasource.username}
+ * and {@code load.datasource.password} to boot it against MySQL.
+ *
+ * <pre>
+ * mvn -f loadtest/pom.xml package exec:exec -Dloadtest.args="-Dload.rate=200 -Dload.mix=new=1,returning=4,browse=5"
+ * </pre>
+ */
+public final class LoadGenerator {
+
+    private static final String SECRET_KEY = "YzJkNzJmNjlhMWFmZTQ1M2NhMzUwZTA1ZjAyMjA2YzYwYjQxZjY4ODNjMWUyNTcwYzg0MTg";
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Scenario scenario;
+    private final List<Scenario.Flow> flows = new ArrayList<>();
+    private final int[] cumulativeWeights;
+    private final int maxSessions;
+
+    private final AtomicLong inFlight = new AtomicLong();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private LoadGenerator(Scenario scenario, String mix, int maxSessions) {
+        this.scenario = scenario;
+        this.maxSessions = maxSessions;
+        List<Integer> weights = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            flows.add(Scenario.Flow.fromName(parts[0]));
+            weights.add(parts.length > 1 ? Integer.parseInt(parts[1].strip()) : 1);
+        }
+        this.cumulativeWeights = new int[weights.size()];
+        int total = 0;
+        for (int i = 0; i < weights.size(); i++) {
+            total += weights.get(i);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("load.mix needs a positive weight: " + mix);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        double rate = Double.parseDouble(System.getProperty("load.rate", "50"));
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup.seconds", 10));
+        Duration measurement = Duration.ofSeconds(Long.getLong("load.seconds", 60));
+        String mix = System.getProperty("load.mix", "new=1,returning=4,browse=5");
+        int accounts = Integer.getInteger("load.accounts", 50);
+        int maxSessions = Integer.getInteger("load.max.sessions", 10_000);
+        Path collectionFile = Path.of(System.getProperty("load.collection", "../Order Management API.postman_collection.json"));
+        Path outputDirectory = Path.of(System.getProperty("load.output.dir", "target/loadtest"));
+        String targetUrl = System.getProperty("load.target.url");
+        if (rate <= 0) {
+            throw new IllegalArgumentException("load.rate must be > 0");
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        PostmanCollection collection = PostmanCollection.load(collectionFile, objectMapper);
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        ConfigurableApplicationContext context = targetUrl == null ? bootApplication() : null;
+        try {
+            String baseUrl = targetUrl != null ? targetUrl
+                    : "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientExecutor)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            EndpointStats stats = new EndpointStats();
+            Scenario scenario = new Scenario(client, collection, baseUrl, stats, objectMapper);
+            LoadGenerator generator = new LoadGenerator(scenario, mix, maxSessions);
+
+            System.out.printf("Loading %s at %.1f sessions/s (%s) for %d s after a %d s warm-up%n",
+                    baseUrl, rate, mix, measurement.toSeconds(), warmup.toSeconds());
+            scenario.createAccounts(accounts);
+            generator.run(rate, warmup);
+            stats.snapshot(); // Discards the warm-up and account creation
+            generator.resetCounters();
+
+            generator.run(rate, measurement);
+            generator.drain();
+            Map<String, EndpointStats.Interval> results = stats.snapshot();
+
+            System.out.printf("%nSessions: %d started, %d completed, %d failed, %d dropped at the %d in-flight limit%n",
+                    generator.started.sum(), generator.completed.sum(), generator.failed.sum(), generator.dropped.sum(), maxSessions);
+            EndpointStats.report(results, measurement.toNanos() / 1e9, System.out);
+            EndpointStats.writeDistributions(results, outputDirectory);
+            System.out.println("Latency distributions written to " + outputDirectory.toAbsolutePath());
+        } finally {
+            clientExecutor.shutdownNow();
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * Starts sessions at the given rate until the duration has passed. Start times are fixed in advance,
+     * so a late start is followed by catch-up starts instead of lowering the rate.
+     */
+    private void run(double rate, Duration duration) {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long next = System.nanoTime();
+        long end = next + duration.toNanos();
+        while (next < end) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            startSession(next);
+            next += intervalNanos;
+        }
+    }
+
+    private void startSession(long intendedStartNanos) {
+        if (inFlight.get() >= maxSessions) {
+            dropped.increment();
+            return;
+        }
+        inFlight.incrementAndGet();
+        started.increment();
+        scenario.start(nextFlow(), intendedStartNanos).whenComplete((result, failure) -> {
+            inFlight.decrementAndGet();
+            if (failure == null) {
+                completed.increment();
+            } else {
+                failed.increment();
+            }
+        });
+    }
+
+    private Scenario.Flow nextFlow() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int i = 0;
+        while (pick >= cumulativeWeights[i]) {
+            i++;
+        }
+        return flows.get(i);
+    }
+
+    /**
+     * Waits for the sessions still in flight, so their requests are part of the results.
+     */
+    private void drain() {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    private void resetCounters() {
+        started.reset();
+        completed.reset();
+        failed.reset();
+        dropped.reset();
+    }
+
+    /**
+     * Starts the application on a random port with an in-memory datasource, unless a datasource is given.
+     */
+    private static ConfigurableApplicationContext bootApplication() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:loadtest-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1;MODE=MySQL");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        properties.put("spring.jpa.open-in-view", "false");
+        properties.put("spring.devtools.restart.enabled", "false");
+        properties.put("logging.level.root", "WARN");
+        properties.put("jwt.secret.key", SECRET_KEY);
+        properties.put("order.reference.node.id", "0");
+        copyProperty("load.datasource.url", "spring.datasource.url", properties);
+        copyProperty("load.datasource.username", "spring.datasource.username", properties);
+        copyProperty("load.datasource.password", "spring.datasource.password", properties);
+        if (System.getProperty("load.datasource.url") != null) {
+            properties.remove("spring.jpa.hibernate.ddl-auto"); // The MySQL schema comes from mysql/schema.sql
+        }
+
+        return new SpringApplicationBuilder(OrdermanagementApplication.class)
+                .properties(properties)
+                .run();
+    }
+
+    private static void copyProperty(String from, String to, Map<String, Object> properties) {
+        String value = System.getProperty(from);
+        if (value != null) {
+            properties.put(to, value);
+        }
+    }
+}
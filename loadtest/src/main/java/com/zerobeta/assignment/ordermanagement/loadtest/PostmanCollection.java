@@ -0,0 +1,121 @@
+package com.zerobeta.assignment.ordermanagement.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The requests of the Postman collection shipped with the repository, used as templates for the load test.
+ *
+ * The host of each request is replaced by the target under test, path variables such as
+ * {@code {orderReference}} are filled in per call, and fields of the JSON body can be overridden,
+ * so the load test sends the same requests as the collection.
+ */
+final class PostmanCollection {
+
+    static final String SIGN_UP = "Client Sign Up";
+    static final String SIGN_IN = "Client Sign In";
+    static final String PLACE_ORDER = "Place Order";
+    static final String ORDER_HISTORY = "Fetch Order History";
+    static final String CANCEL_ORDER = "Cancel Order";
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * A request of the collection.
+     *
+     * @param method The HTTP method.
+     * @param path   The path and query, without scheme and host.
+     * @param body   The JSON body, or null.
+     */
+    record Template(String method, String path, ObjectNode body) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Template> templates;
+
+    private PostmanCollection(ObjectMapper objectMapper, Map<String, Template> templates) {
+        this.objectMapper = objectMapper;
+        this.templates = templates;
+    }
+
+    /**
+     * Reads the requests of a Postman v2.1 collection, including those in folders.
+     */
+    static PostmanCollection load(Path file, ObjectMapper objectMapper) throws IOException {
+        Map<String, Template> templates = new HashMap<>();
+        collect(objectMapper.readTree(file.toFile()).path("item"), objectMapper, templates);
+        return new PostmanCollection(objectMapper, templates);
+    }
+
+    private static void collect(JsonNode items, ObjectMapper objectMapper, Map<String, Template> templates) throws IOException {
+        for (JsonNode item : items) {
+            if (item.has("item")) {
+                collect(item.path("item"), objectMapper, templates);
+                continue;
+            }
+            JsonNode request = item.path("request");
+            JsonNode url = request.path("url");
+            String raw = url.isTextual() ? url.asText() : url.path("raw").asText();
+            String rawBody = request.path("body").path("raw").asText("");
+            ObjectNode body = rawBody.isBlank() ? null : (ObjectNode) objectMapper.readTree(rawBody);
+            templates.put(item.path("name").asText(), new Template(request.path("method").asText(), stripHost(raw), body));
+        }
+    }
+
+    /**
+     * Removes the scheme and host; the raw URL may contain unencoded path variables, so it is not parsed as a URI.
+     */
+    private static String stripHost(String rawUrl) {
+        int scheme = rawUrl.indexOf("://");
+        int path = rawUrl.indexOf('/', scheme < 0 ? 0 : scheme + 3);
+        return path < 0 ? "/" : rawUrl.substring(path);
+    }
+
+    /**
+     * Builds a request from the named template.
+     *
+     * @param name          The name of the request in the collection.
+     * @param baseUrl       The scheme, host and port of the target.
+     * @param token         The bearer token, or null.
+     * @param pathVariables Values for the {@code {name}} placeholders of the path.
+     * @param bodyFields    Fields that replace those of the template body.
+     */
+    HttpRequest request(String name, String baseUrl, String token, Map<String, String> pathVariables,
+                        Map<String, Object> bodyFields) {
+        Template template = templates.get(name);
+        if (template == null) {
+            throw new IllegalArgumentException("The collection has no request named " + name);
+        }
+
+        String path = template.path();
+        for (Map.Entry<String, String> variable : pathVariables.entrySet()) {
+            path = path.replace("{" + variable.getKey() + "}", variable.getValue());
+        }
+        HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.noBody();
+        if (template.body() != null) {
+            ObjectNode body = template.body().deepCopy();
+            bodyFields.forEach((field, value) -> body.set(field, objectMapper.valueToTree(value)));
+            publisher = HttpRequest.BodyPublishers.ofString(body.toString());
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .method(template.method(), publisher);
+        if (template.body() != null) {
+            builder.header("Content-Type", "application/json");
+        }
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+}
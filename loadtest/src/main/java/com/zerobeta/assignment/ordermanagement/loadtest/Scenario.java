@@ -0,0 +1,158 @@
+package com.zerobeta.assignment.ordermanagement.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The user flows the load test drives, built from the requests of the Postman collection.
+ *
+ * Each flow is one virtual user session whose steps run one after another without blocking a
+ * thread. A step that fails, by transport error or a non-2xx status, ends the session.
+ */
+final class Scenario {
+
+    static final String PASSWORD = "Valid123!";
+
+    /**
+     * A kind of session, in the proportions given by {@code load.mix}.
+     */
+    enum Flow {
+        /** Sign up, sign in, place an order, read the history and cancel the order. */
+        NEW_CUSTOMER,
+        /** Place an order with an existing account and read the history. */
+        RETURNING_CUSTOMER,
+        /** Read a history page with an existing account. */
+        BROWSER;
+
+        static Flow fromName(String name) {
+            return switch (name.strip().toLowerCase(Locale.ROOT)) {
+                case "new" -> NEW_CUSTOMER;
+                case "returning" -> RETURNING_CUSTOMER;
+                case "browse" -> BROWSER;
+                default -> throw new IllegalArgumentException("Unknown flow in load.mix: " + name);
+            };
+        }
+    }
+
+    /**
+     * A signed-in account shared by the returning and browsing sessions.
+     */
+    record Account(String email, String token) {
+    }
+
+    /**
+     * Ends a session; the failed request has already been recorded, so no stack trace is needed.
+     */
+    private static final class StepFailedException extends RuntimeException {
+        StepFailedException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private final HttpClient client;
+    private final PostmanCollection collection;
+    private final String baseUrl;
+    private final EndpointStats stats;
+    private final ObjectMapper objectMapper;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong userSequence = new AtomicLong();
+    private final List<Account> accounts = new CopyOnWriteArrayList<>();
+
+    Scenario(HttpClient client, PostmanCollection collection, String baseUrl, EndpointStats stats, ObjectMapper objectMapper) {
+        this.client = client;
+        this.collection = collection;
+        this.baseUrl = baseUrl;
+        this.stats = stats;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Signs up and signs in accounts for the returning and browsing sessions.
+     */
+    void createAccounts(int count) {
+        for (int i = 0; i < count; i++) {
+            accounts.add(signUpAndSignIn(System.nanoTime()).join());
+        }
+    }
+
+    /**
+     * Starts a session.
+     *
+     * @param intendedStartNanos When the session was due to start. Its first request is timed from then,
+     *                           so a late start counts as latency instead of being hidden.
+     */
+    CompletableFuture<?> start(Flow flow, long intendedStartNanos) {
+        return switch (flow) {
+            case NEW_CUSTOMER -> signUpAndSignIn(intendedStartNanos)
+                    .thenCompose(account -> placeOrder(account.token(), System.nanoTime())
+                            .thenCompose(orderReference -> history(account.token(), System.nanoTime())
+                                    .thenCompose(ignored -> cancel(account.token(), orderReference))));
+            case RETURNING_CUSTOMER -> {
+                Account account = randomAccount();
+                yield placeOrder(account.token(), intendedStartNanos)
+                        .thenCompose(orderReference -> history(account.token(), System.nanoTime()));
+            }
+            case BROWSER -> history(randomAccount().token(), intendedStartNanos);
+        };
+    }
+
+    private CompletableFuture<Account> signUpAndSignIn(long startNanos) {
+        String email = "load-" + runId + "-" + userSequence.incrementAndGet() + "@example.com";
+        Map<String, Object> credentials = Map.of("email", email, "password", PASSWORD);
+        return send("signup", collection.request(PostmanCollection.SIGN_UP, baseUrl, null, Map.of(),
+                Map.of("email", email, "password", PASSWORD, "firstName", "Load", "lastName", "Test")), startNanos)
+                .thenCompose(ignored -> send("signin",
+                        collection.request(PostmanCollection.SIGN_IN, baseUrl, null, Map.of(), credentials), System.nanoTime()))
+                .thenApply(response -> new Account(email, response.path("data").asText()));
+    }
+
+    private CompletableFuture<String> placeOrder(String token, long startNanos) {
+        HttpRequest request = collection.request(PostmanCollection.PLACE_ORDER, baseUrl, token, Map.of(),
+                Map.of("quantity", ThreadLocalRandom.current().nextInt(1, 5)));
+        return send("place", request, startNanos)
+                .thenApply(response -> response.path("data").path("orderReference").asText());
+    }
+
+    private CompletableFuture<JsonNode> history(String token, long startNanos) {
+        return send("history", collection.request(PostmanCollection.ORDER_HISTORY, baseUrl, token, Map.of(), Map.of()), startNanos);
+    }
+
+    private CompletableFuture<JsonNode> cancel(String token, String orderReference) {
+        return send("cancel", collection.request(PostmanCollection.CANCEL_ORDER, baseUrl, token,
+                Map.of("orderReference", orderReference), Map.of()), System.nanoTime());
+    }
+
+    private Account randomAccount() {
+        return accounts.get(ThreadLocalRandom.current().nextInt(accounts.size()));
+    }
+
+    private CompletableFuture<JsonNode> send(String endpoint, HttpRequest request, long startNanos) {
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, failure) -> {
+                    boolean success = failure == null && response.statusCode() / 100 == 2;
+                    stats.record(endpoint, System.nanoTime() - startNanos, success);
+                    if (!success) {
+                        throw new CompletionException(new StepFailedException(endpoint + " failed"));
+                    }
+                    try {
+                        return objectMapper.readTree(response.body());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+}
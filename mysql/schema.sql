@@ -1,3 +1,5 @@
+-- Every statement can run again on an initialized database: tables are created with their indexes only if they are
+-- missing, seeds use INSERT IGNORE and data migrations are recorded in schema_migrations.
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     email VARCHAR(255) NOT NULL UNIQUE,
@@ -6,16 +8,97 @@ CREATE TABLE IF NOT EXISTS users (
     last_name VARCHAR(100)
 );
 
+-- Pooled id allocation for orders (allocationSize = 50), so Hibernate can batch inserts
+CREATE TABLE IF NOT EXISTS id_generator (
+    sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val BIGINT NOT NULL
+);
+
+-- Partitioned by month of placement; OrderPartitionMaintenance splits new months off p_future and
+-- removes expired ones. MySQL requires every unique key of a partitioned table to include the
+-- partitioning column and does not support foreign keys on it, so:
+--   * the primary key is (id, placement_timestamp); ids alone stay unique through id_generator,
+--   * order_reference is unique together with placement_timestamp; orders are placed at the time encoded
+--     in their reference (OrderReferenceGenerator), so a duplicate reference still violates the key,
+--   * there is no foreign key to users; deleting a user removes its orders through JPA.
 CREATE TABLE IF NOT EXISTS orders (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT NOT NULL,
     user_id BIGINT NOT NULL,
-    order_reference VARCHAR(255) NOT NULL UNIQUE,
+    order_reference VARCHAR(255) NOT NULL,
     item_name VARCHAR(255) NOT NULL,
     quantity INT NOT NULL,
     shipping_address TEXT NOT NULL,
     status ENUM('NEW', 'DISPATCHED', 'CANCELLED') DEFAULT 'NEW',
-    placement_timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+    placement_timestamp DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id, placement_timestamp),
+    UNIQUE INDEX idx_order_reference (order_reference, placement_timestamp),
+    INDEX idx_order_status (status, placement_timestamp),
+    INDEX idx_orders_user_placement (user_id, placement_timestamp, id)
+)
+PARTITION BY RANGE COLUMNS (placement_timestamp) (
+    PARTITION p_history VALUES LESS THAN ('2024-01-01 00:00:00'),
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
+
+-- Order status changes, written in the same transaction as the change and relayed by OutboxRelay
+CREATE TABLE IF NOT EXISTS order_outbox (
+    id BIGINT PRIMARY KEY,
+    order_reference VARCHAR(255) NOT NULL,
+    event_type VARCHAR(32) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    published_at TIMESTAMP NULL,
+    INDEX idx_outbox_unpublished (published_at, id)
+);
+
+-- Hibernate's pooled optimizer hands out the block of ids below next_val, so next_val starts one allocation
+-- (50) above the highest existing id; tables migrated from AUTO_INCREMENT ids continue after them. IGNORE
+-- leaves the counters of an initialized database alone when the script runs again.
+INSERT IGNORE INTO id_generator (sequence_name, next_val)
+SELECT 'orders', COALESCE(MAX(id), 0) + 50 FROM orders
+UNION ALL
+SELECT 'order_outbox', COALESCE(MAX(id), 0) + 50 FROM order_outbox;
+
+-- Orders created per Idempotency-Key, kept for idempotency.key.ttl.hours and purged by IdempotencyKeyPurge
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    user_id BIGINT NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    order_reference VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (user_id, idempotency_key),
+    INDEX idx_idempotency_created (created_at)
+);
+
+-- Per-user order counts by status, updated in the transaction of every order change
+CREATE TABLE IF NOT EXISTS user_order_counts (
+    user_id BIGINT NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    order_count BIGINT NOT NULL,
+    PRIMARY KEY (user_id, status)
 );
 
-CREATE INDEX idx_order_status ON orders (status);
\ No newline at end of file
+-- Data migrations that must run only once, by name
+CREATE TABLE IF NOT EXISTS schema_migrations (
+    name VARCHAR(64) NOT NULL PRIMARY KEY,
+    applied_at TIMESTAMP NOT NULL
+);
+
+-- Fills user_order_counts from the orders placed before the counts were kept. The marker row, written in the same
+-- transaction, makes it run once; the empty-table check skips it on databases whose counts the application already
+-- keeps. The INSERT ... SELECT locks the orders it reads, so orders placed meanwhile wait for it.
+START TRANSACTION;
+INSERT INTO user_order_counts (user_id, status, order_count)
+SELECT user_id, status, COUNT(*) FROM orders
+WHERE NOT EXISTS (SELECT 1 FROM schema_migrations WHERE name = 'backfill_user_order_counts')
+  AND NOT EXISTS (SELECT 1 FROM user_order_counts)
+GROUP BY user_id, status;
+INSERT IGNORE INTO schema_migrations (name, applied_at) VALUES ('backfill_user_order_counts', CURRENT_TIMESTAMP);
+COMMIT;
+
+-- Expired order partitions whose orders have been taken out of user_order_counts, so that a retried
+-- removal by OrderPartitionMaintenance does not subtract them twice
+CREATE TABLE IF NOT EXISTS order_partition_removals (
+    partition_name VARCHAR(64) NOT NULL PRIMARY KEY,
+    removed_at TIMESTAMP NOT NULL
+);
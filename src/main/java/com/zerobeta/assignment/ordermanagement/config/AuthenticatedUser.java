@@ -0,0 +1,15 @@
+package com.zerobeta.assignment.ordermanagement.config;
+
+import java.time.Instant;
+
+/**
+ * The principal of a request authenticated with a JWT.
+ * It is resolved once by the JwtRequestFilter and handed to controllers through
+ * {@code @AuthenticationPrincipal}, so the Authorization header is not parsed again.
+ *
+ * @param email       The email of the user (the token subject).
+ * @param userId      The id of the user, or null for tokens issued before the id claim was added.
+ * @param tokenExpiry The expiration time of the token.
+ */
+public record AuthenticatedUser(String email, Long userId, Instant tokenExpiry) {
+}
@@ -0,0 +1,91 @@
+package com.zerobeta.assignment.ordermanagement.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate settings that the application relies on.
+ * Values given through spring.jpa.properties.* take precedence over these defaults.
+ *
+ * The second-level cache is backed by Caffeine through JCache, with one bounded, expiring region per
+ * cached entity and one for the Order natural-id (order reference) lookups. Hibernate evicts the
+ * affected regions itself when a bulk JPQL UPDATE or DELETE runs, so the status updates in
+ * OrderRepository never leave stale orders behind. Region statistics are published as the
+ * hibernate.second.level.cache.* metrics.
+ */
+@Configuration
+public class HibernateConfig {
+
+    public static final String USER_REGION = "users";
+    public static final String ORDER_REGION = "orders";
+    public static final String ORDER_REFERENCE_REGION = "orders-by-reference";
+
+    @Value("${order.jdbc.batch.size:50}") // Matches the allocation size of the order id generator.
+    private int jdbcBatchSize;
+
+    @Value("${cache.users.max.size:10000}")
+    private long usersMaxSize;
+
+    @Value("${cache.users.ttl.seconds:600}")
+    private long usersTtlSeconds;
+
+    @Value("${cache.orders.max.size:50000}")
+    private long ordersMaxSize;
+
+    @Value("${cache.orders.ttl.seconds:300}")
+    private long ordersTtlSeconds;
+
+    @Bean
+    public HibernatePropertiesCustomizer batchingPropertiesCustomizer() {
+        return properties -> {
+            // Group inserts into JDBC batches; with rewriteBatchedStatements=true MySQL receives multi-row INSERTs
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, jdbcBatchSize);
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        createRegion(cacheManager, USER_REGION, usersMaxSize, usersTtlSeconds);
+        createRegion(cacheManager, ORDER_REGION, ordersMaxSize, ordersTtlSeconds);
+        createRegion(cacheManager, ORDER_REFERENCE_REGION, ordersMaxSize, ordersTtlSeconds);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCachePropertiesCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.putIfAbsent(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.putIfAbsent(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            // Needed for the hibernate.* cache hit, miss and put metrics
+            properties.putIfAbsent(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, long maxSize, long ttlSeconds) {
+        if (cacheManager.getCache(name) != null) {
+            cacheManager.destroyCache(name); // Left over from an earlier context in the same JVM
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(name, configuration);
+    }
+}
@@ -2,6 +2,7 @@ package com.zerobeta.assignment.ordermanagement.config;
 
 
 import com.zerobeta.assignment.ordermanagement.service.JwtService;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -39,13 +40,15 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String email = null;
-        String jwt = null;
+        AuthenticatedUser principal = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7); // Extract token
+            String jwt = authorizationHeader.substring(7); // Extract token
             try {
-                email = jwtUtil.extractEmail(jwt);
+                // Verifies signature and expiry once; repeat requests with the same token are served from the cache
+                Claims claims = jwtUtil.verifyToken(jwt);
+                principal = new AuthenticatedUser(claims.getSubject(),
+                        claims.get(JwtService.USER_ID_CLAIM, Long.class), claims.getExpiration().toInstant());
             } catch (JwtException e) {
                 log.error("JWT Token error: {}", e.getMessage());
                 unauthorizedHandler.commence(request, response, new AuthenticationException("Invalid JWT Token") {});
@@ -53,19 +56,13 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             }
         }
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (Boolean.FALSE.equals(jwtUtil.validateToken(jwt, email))) {
-                log.warn("JWT Token validation failed for user: {}", email);
-                unauthorizedHandler.commence(request, response,  new AuthenticationException("JWT Token is not valid"){});
-                return;
-            } else {
-                UsernamePasswordAuthenticationToken authenticationToken =
-                        new UsernamePasswordAuthenticationToken(email, null, new ArrayList<>());
-                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+        if (principal != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UsernamePasswordAuthenticationToken authenticationToken =
+                    new UsernamePasswordAuthenticationToken(principal, null, new ArrayList<>());
+            authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authenticationToken);
 
-                log.info("JWT Token Validated, Setting Authentication For User: {}", email);
-            }
+            log.info("JWT Token Validated, Setting Authentication For User: {}", principal.email());
         }
 
         chain.doFilter(request, response);
@@ -0,0 +1,26 @@
+package com.zerobeta.assignment.ordermanagement.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerobeta.assignment.ordermanagement.service.FileOrderEventSink;
+import com.zerobeta.assignment.ordermanagement.service.OrderEventSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Wiring of the order event outbox.
+ * Defining another {@link OrderEventSink} bean replaces the default file sink.
+ */
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(OrderEventSink.class)
+    public OrderEventSink orderEventSink(@Value("${outbox.sink.file:order-events.ndjson}") String file,
+                                         ObjectMapper objectMapper) {
+        return new FileOrderEventSink(Path.of(file), objectMapper);
+    }
+}
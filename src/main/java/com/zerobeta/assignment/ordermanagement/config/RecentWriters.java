@@ -0,0 +1,48 @@
+package com.zerobeta.assignment.ordermanagement.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Users who committed a write within the last {@code datasource.replica.read.your.writes.seconds}.
+ *
+ * {@link ReplicaRoutingDataSource} keeps these users' reads on the primary, so they see their own
+ * orders even while the replicas lag behind. The window is per instance.
+ */
+@Component
+public class RecentWriters {
+
+    private static final long MAX_TRACKED_USERS = 100_000;
+
+    private final Cache<Long, Boolean> writers;
+
+    public RecentWriters(@Value("${datasource.replica.read.your.writes.seconds:10}") long windowSeconds) {
+        this.writers = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_USERS)
+                .expireAfterWrite(Duration.ofSeconds(windowSeconds))
+                .build();
+    }
+
+    /**
+     * Records that the user's write has committed.
+     *
+     * @param userId The id of the user, or null if unknown.
+     */
+    public void recordWrite(Long userId) {
+        if (userId != null) {
+            writers.put(userId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * @param userId The id of the user.
+     * @return Whether the user committed a write within the window.
+     */
+    public boolean wroteRecently(Long userId) {
+        return writers.getIfPresent(userId) != null;
+    }
+}
@@ -0,0 +1,105 @@
+package com.zerobeta.assignment.ordermanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data sources for read replicas, enabled by setting {@code datasource.replica.urls} to a comma-separated
+ * list of JDBC URLs. Without it, Spring Boot's single data source is used unchanged.
+ *
+ * The primary pool is built from the usual spring.datasource.* and spring.datasource.hikari.* properties.
+ * Each replica gets its own read-only pool with the same Hikari settings and
+ * {@code datasource.replica.pool.size} connections.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.urls")
+public class ReplicaDataSourceConfig {
+
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties properties,
+            Environment environment,
+            RecentWriters recentWriters,
+            MeterRegistry meterRegistry,
+            @Value("${datasource.replica.urls}") List<String> urls,
+            @Value("${datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${datasource.replica.password:${spring.datasource.password:}}") String password,
+            @Value("${datasource.replica.pool.size:10}") int poolSize,
+            @Value("${datasource.replica.lag.check:true}") boolean lagCheck,
+            @Value("${datasource.replica.max.lag.seconds:5}") long maxLagSeconds,
+            @Value("${datasource.replica.health.interval.ms:5000}") long healthIntervalMillis) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind(HIKARI_PREFIX, Bindable.ofInstance(primary));
+        primary.setMetricRegistry(meterRegistry);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            binder.bind(HIKARI_PREFIX, Bindable.ofInstance(replica));
+            String name = "replica-" + (replicas.size() + 1);
+            replica.setPoolName(name);
+            replica.setJdbcUrl(url.strip());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replica.setMetricRegistry(meterRegistry);
+            replicas.put(name, replica);
+        }
+        if (replicas.isEmpty()) {
+            throw new IllegalStateException("datasource.replica.urls is set but contains no URL");
+        }
+
+        ReplicaRoutingDataSource routingDataSource =
+                new ReplicaRoutingDataSource(primary, replicas, recentWriters, lagCheck, maxLagSeconds, meterRegistry);
+        routingDataSource.startHealthChecks(healthIntervalMillis);
+        return routingDataSource;
+    }
+
+    /**
+     * The data source used by JPA. Connections are fetched on the first statement, after the
+     * transaction's read-only flag is known.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * Reports which replicas are in rotation. Always up, since reads fall back to the primary.
+     */
+    @Bean
+    public HealthIndicator replicasHealthIndicator(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return () -> {
+            Health.Builder health = Health.up();
+            replicaRoutingDataSource.replicaStates()
+                    .forEach((name, healthy) -> health.withDetail(name, healthy ? "in rotation" : "out of rotation"));
+            return health.build();
+        };
+    }
+}
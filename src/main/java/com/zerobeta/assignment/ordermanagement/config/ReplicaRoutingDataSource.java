@@ -0,0 +1,284 @@
+package com.zerobeta.assignment.ordermanagement.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Data source that sends the read-only transactions of signed-in users to a replica.
+ *
+ * Everything else uses the primary: read-write transactions, work without a signed-in user (sign-in,
+ * sign-up, scheduled jobs) and the reads of users who committed a write within the
+ * {@link RecentWriters} window, so users always read their own writes. Replicas are used round robin
+ * and only while the periodic health check finds them reachable and replicating no more than
+ * {@code maxLagSeconds} behind; with no healthy replica, reads fall back to the primary. A replica
+ * whose replication status cannot be read is out of rotation, unless the lag check is turned off
+ * so that any second database can stand in for a replica.
+ *
+ * The routing decision needs the transaction's read-only flag, which is only set after the
+ * transaction has begun, so this data source must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long REPLICATION_STOPPED = -1;
+    private static final long NOT_A_REPLICA = -2;
+
+    /**
+     * A replica and whether it is currently in rotation.
+     */
+    private static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        volatile boolean healthy; // Out of rotation until the first health check passes
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final RecentWriters recentWriters;
+    private final boolean lagCheck;
+    private final long maxLagSeconds;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private ScheduledExecutorService healthChecks;
+
+    private final Counter replicaReads;
+    private final Counter anonymousReads;
+    private final Counter recentWriterReads;
+    private final Counter fallbackReads;
+
+    /**
+     * @param primary       The data source for writes and for reads that cannot use a replica.
+     * @param replicas      The replica data sources by name.
+     * @param recentWriters The users whose reads stay on the primary.
+     * @param lagCheck      Whether replicas must report their replication lag; turned off for stand-ins.
+     * @param maxLagSeconds The replication lag above which a replica leaves rotation.
+     * @param registry      The registry for the routing metrics.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, RecentWriters recentWriters,
+                                    boolean lagCheck, long maxLagSeconds, MeterRegistry registry) {
+        this.primary = primary;
+        this.recentWriters = recentWriters;
+        this.lagCheck = lagCheck;
+        this.maxLagSeconds = maxLagSeconds;
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            this.replicas.add(replica);
+            Gauge.builder("datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("Whether the replica is in rotation")
+                    .tag("replica", name)
+                    .register(registry);
+        });
+
+        this.replicaReads = readCounter(registry, "replica", "replica");
+        this.anonymousReads = readCounter(registry, "primary", "anonymous");
+        this.recentWriterReads = readCounter(registry, "primary", "recent-write");
+        this.fallbackReads = readCounter(registry, "primary", "no-healthy-replica");
+    }
+
+    private static Counter readCounter(MeterRegistry registry, String target, String reason) {
+        return Counter.builder("datasource.reads")
+                .description("Read-only transactions by the data source that served them")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(username, password);
+    }
+
+    private Connection route(String username, String password) throws SQLException {
+        Long userId = currentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteOnCommit(userId);
+            return connect(primary, username, password);
+        }
+        if (userId == null) {
+            anonymousReads.increment();
+            return connect(primary, username, password);
+        }
+        if (recentWriters.wroteRecently(userId)) {
+            recentWriterReads.increment();
+            return connect(primary, username, password);
+        }
+
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection connection = connect(replica.dataSource, username, password);
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                markDown(replica, "connection failed: " + e.getMessage());
+            }
+        }
+        fallbackReads.increment();
+        return connect(primary, username, password);
+    }
+
+    private static Connection connect(DataSource dataSource, String username, String password) throws SQLException {
+        return username == null ? dataSource.getConnection() : dataSource.getConnection(username, password);
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.userId();
+        }
+        return null;
+    }
+
+    /**
+     * Starts the user's read-your-writes window once the read-write transaction commits.
+     */
+    private void recordWriteOnCommit(Long userId) {
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    recentWriters.recordWrite(userId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs {@link #checkReplicas} at a fixed delay on a thread of its own. The checks do not share
+     * Spring's scheduler with the other jobs, so a long dispatch or outbox run cannot delay them
+     * while a lagging replica stays in rotation.
+     *
+     * @param intervalMillis The delay between the end of one check and the start of the next.
+     */
+    public void startHealthChecks(long intervalMillis) {
+        healthChecks = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecks.scheduleWithFixedDelay(() -> {
+            try {
+                checkReplicas();
+            } catch (RuntimeException e) {
+                // An exception would cancel the schedule
+                logger.error("Replica health check failed.", e);
+            }
+        }, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Puts reachable replicas that are not too far behind into rotation and takes the others out.
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    markDown(replica, "connection is not valid");
+                    continue;
+                }
+                if (lagCheck) {
+                    long lag = lagSeconds(connection);
+                    if (lag < 0 || lag > maxLagSeconds) {
+                        markDown(replica, lag == NOT_A_REPLICA ? "it reports no replication status"
+                                : lag < 0 ? "replication is stopped" : "lag of " + lag + "s");
+                        continue;
+                    }
+                }
+                if (!replica.healthy) {
+                    logger.info("Replica {} is back in rotation.", replica.name);
+                    replica.healthy = true;
+                }
+            } catch (SQLException e) {
+                markDown(replica, "health check failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads the replication lag from SHOW REPLICA STATUS.
+     *
+     * @return The lag in seconds; {@link #REPLICATION_STOPPED} if replication is stopped, or
+     *         {@link #NOT_A_REPLICA} if the server is not a replica.
+     * @throws SQLException if the status cannot be read, e.g. without the REPLICATION CLIENT privilege.
+     */
+    private static long lagSeconds(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!status.next()) {
+                return NOT_A_REPLICA;
+            }
+            long lag = status.getLong("Seconds_Behind_Source");
+            return status.wasNull() ? REPLICATION_STOPPED : lag;
+        }
+    }
+
+    private static void markDown(Replica replica, String reason) {
+        if (replica.healthy) {
+            logger.warn("Replica {} is out of rotation, {}.", replica.name, reason);
+            replica.healthy = false;
+        }
+    }
+
+    /**
+     * @return Whether each replica is in rotation, by name.
+     */
+    public Map<String, Boolean> replicaStates() {
+        Map<String, Boolean> states = new LinkedHashMap<>();
+        replicas.forEach(replica -> states.put(replica.name, replica.healthy));
+        return states;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (healthChecks != null) {
+            healthChecks.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.zerobeta.assignment.ordermanagement.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Reports the threading mode the application runs in.
+ *
+ * Virtual threads are switched on with {@code spring.threads.virtual.enabled=true}, which makes Spring Boot
+ * serve requests, run {@code @Scheduled} jobs and async tasks on virtual threads. Boot ignores the property
+ * on runtimes older than Java 21, so that case is logged as a warning instead of failing silently.
+ * In virtual mode the Hikari pool, not the Tomcat thread pool, bounds concurrent database work, so
+ * {@code spring.datasource.hikari.maximum-pool-size} and {@code connection-timeout} should be set explicitly.
+ */
+@Configuration
+public class ThreadingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadingConfig.class);
+    private static final int VIRTUAL_THREADS_MIN_JAVA_VERSION = 21;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int maximumPoolSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void logThreadingMode() {
+        int javaVersion = Runtime.version().feature();
+        if (!virtualThreadsEnabled) {
+            logger.info("Running on platform threads (Java {}), database pool size {}.", javaVersion, maximumPoolSize);
+        } else if (javaVersion < VIRTUAL_THREADS_MIN_JAVA_VERSION) {
+            logger.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; running on platform threads.",
+                    javaVersion);
+        } else {
+            logger.info("Running on virtual threads (Java {}), database pool size {}.", javaVersion, maximumPoolSize);
+        }
+    }
+}
@@ -1,17 +1,36 @@
 package com.zerobeta.assignment.ordermanagement.controller;
 
+import com.zerobeta.assignment.ordermanagement.config.AuthenticatedUser;
+import com.zerobeta.assignment.ordermanagement.dto.BatchOrderRequestDTO;
+import com.zerobeta.assignment.ordermanagement.dto.CursorPageDTO;
+import com.zerobeta.assignment.ordermanagement.dto.OrderHistoryItemDTO;
+import com.zerobeta.assignment.ordermanagement.dto.OrderIngestionStatusDTO;
 import com.zerobeta.assignment.ordermanagement.dto.OrderRequestDTO;
+import com.zerobeta.assignment.ordermanagement.dto.OrderSummaryDTO;
 import com.zerobeta.assignment.ordermanagement.dto.APIResponseDTO;
 import com.zerobeta.assignment.ordermanagement.entity.Order;
+import com.zerobeta.assignment.ordermanagement.enums.ExportFormat;
+import com.zerobeta.assignment.ordermanagement.service.IdempotentOrderService;
+import com.zerobeta.assignment.ordermanagement.service.OrderExportService;
+import com.zerobeta.assignment.ordermanagement.service.OrderIngestionService;
 import com.zerobeta.assignment.ordermanagement.service.OrderService;
-import com.zerobeta.assignment.ordermanagement.service.JwtService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * Controller for managing orders in the order management system.
  * This class handles requests related to order placement, cancellation,
@@ -22,66 +41,136 @@ import org.springframework.web.bind.annotation.*;
 public class OrderController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(OrderController.class);
+    private static final LocalDateTime EXPORT_RANGE_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final OrderService orderService;
-    private final JwtService jwtUtil;
+    private final IdempotentOrderService idempotentOrderService;
+    private final OrderIngestionService orderIngestionService;
+    private final OrderExportService orderExportService;
 
-    public OrderController(OrderService orderService, JwtService jwtUtil) {
+    public OrderController(OrderService orderService, IdempotentOrderService idempotentOrderService,
+                           OrderIngestionService orderIngestionService, OrderExportService orderExportService) {
         this.orderService = orderService;
-        this.jwtUtil = jwtUtil;
+        this.idempotentOrderService = idempotentOrderService;
+        this.orderIngestionService = orderIngestionService;
+        this.orderExportService = orderExportService;
     }
 
     /**
      * Places a new order for the authenticated user.
+     * With an Idempotency-Key header, retries of the request return the order created by the first
+     * attempt, marked with an Idempotent-Replayed header, instead of placing another one.
      *
-     * @param token        The JWT token for authentication.
-     * @param orderRequest The details of the order to be placed.
+     * @param principal      The authenticated user, resolved from the JWT by the request filter.
+     * @param idempotencyKey The optional client-chosen key identifying the request across retries.
+     * @param orderRequest   The details of the order to be placed.
      * @return ResponseEntity containing the order details.
      */
     @PostMapping("/place")
-    public ResponseEntity<APIResponseDTO<Order>> placeOrder(@RequestHeader("Authorization") String token,
+    public ResponseEntity<APIResponseDTO<Order>> placeOrder(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
                                                             @Valid @RequestBody OrderRequestDTO orderRequest) {
-        String email = jwtUtil.extractEmail(token.substring(7));
-        Order order = orderService.placeOrder(email, orderRequest);
-        APIResponseDTO<Order> response = new APIResponseDTO<>(true, "Order Placed Successfully", order);
+        if (idempotencyKey == null) {
+            Order order = orderService.placeOrder(principal.email(), orderRequest);
+            return ResponseEntity.ok(new APIResponseDTO<>(true, "Order Placed Successfully", order));
+        }
+
+        IdempotentOrderService.Result result =
+                idempotentOrderService.placeOrder(principal.email(), principal.userId(), idempotencyKey, orderRequest);
+        APIResponseDTO<Order> response = new APIResponseDTO<>(true, "Order Placed Successfully", result.order());
+        if (result.replayed()) {
+            LOGGER.info("Replayed order {} for Idempotency-Key of Email: {}", result.order().getOrderReference(), principal.email());
+            return ResponseEntity.ok().header(IDEMPOTENT_REPLAYED_HEADER, "true").body(response);
+        }
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Accepts a new order for write-behind ingestion and returns its reference before the order is written.
+     * Requires order.ingestion.enabled; poll {@code /status/{orderReference}} to see when the order is durable.
+     *
+     * @param principal    The authenticated user, resolved from the JWT by the request filter.
+     * @param orderRequest The details of the order to be placed.
+     * @return ResponseEntity with status 202 containing the order reference, 503 when the queue is full,
+     *         or 404 when write-behind ingestion is disabled.
+     */
+    @PostMapping("/place/async")
+    public ResponseEntity<APIResponseDTO<String>> placeOrderAsync(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                                  @Valid @RequestBody OrderRequestDTO orderRequest) {
+        String orderReference = orderIngestionService.accept(principal.email(), principal.userId(), orderRequest);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new APIResponseDTO<>(true, "Order Accepted", orderReference));
+    }
+
+    /**
+     * Reports whether an order accepted by {@code /place/async} has been written to the database.
+     *
+     * @param principal      The authenticated user, resolved from the JWT by the request filter.
+     * @param orderReference The reference of the accepted order.
+     * @return ResponseEntity containing the ingestion state and, once durable, the order status.
+     */
+    @GetMapping("/status/{orderReference}")
+    public ResponseEntity<APIResponseDTO<OrderIngestionStatusDTO>> getOrderIngestionStatus(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @PathVariable String orderReference) {
+
+        OrderIngestionStatusDTO status = orderIngestionService.getStatus(principal.email(), principal.userId(), orderReference);
+        return ResponseEntity.ok(new APIResponseDTO<>(true, "Fetched Order Status Successfully", status));
+    }
+
+    /**
+     * Places several orders for the authenticated user in one transaction.
+     *
+     * @param principal    The authenticated user, resolved from the JWT by the request filter.
+     * @param batchRequest The orders to be placed.
+     * @return ResponseEntity containing the order references, in the order of the requests.
+     */
+    @PostMapping("/place/batch")
+    public ResponseEntity<APIResponseDTO<List<String>>> placeOrders(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                                   @Valid @RequestBody BatchOrderRequestDTO batchRequest) {
+        List<Order> orders = orderService.placeOrders(principal.email(), batchRequest.getOrders());
+        List<String> orderReferences = orders.stream().map(Order::getOrderReference).toList();
+        LOGGER.info("Placed {} orders for Email: {}", orderReferences.size(), principal.email());
+        return ResponseEntity.ok(new APIResponseDTO<>(true, "Orders Placed Successfully", orderReferences));
+    }
+
     /**
      * Cancels an existing order for the authenticated user.
      *
-     * @param token        The JWT token for authentication.
+     * @param principal    The authenticated user, resolved from the JWT by the request filter.
      * @param orderReference The reference of the order to be canceled.
      * @return ResponseEntity indicating success or failure of the cancellation.
      */
     @PutMapping("/cancel/{orderReference}")
     public ResponseEntity<APIResponseDTO<String>> cancelOrder(
-            @RequestHeader("Authorization") String token,
+            @AuthenticationPrincipal AuthenticatedUser principal,
             @PathVariable String orderReference) {
 
-        String emailId = jwtUtil.extractEmail(token.substring(7));
-        orderService.cancelOrder(emailId, orderReference);
+        orderService.cancelOrder(principal.email(), principal.userId(), orderReference);
         return ResponseEntity.ok(new APIResponseDTO<>(true, "Order Cancelled Successfully"));
     }
 
     /**
      * Fetches the order history for the authenticated user with pagination.
      *
-     * @param token   The JWT token for authentication.
+     * @param principal The authenticated user, resolved from the JWT by the request filter.
      * @param pageNo  The page number for pagination.
      * @param pageSize The number of orders per page.
      * @return ResponseEntity containing the paginated order history.
      */
     @GetMapping("/history")
-    public ResponseEntity<APIResponseDTO<Page<Order>>> getOrderHistory(
-            @RequestHeader("Authorization") String token,
+    public ResponseEntity<APIResponseDTO<Page<OrderHistoryItemDTO>>> getOrderHistory(
+            @AuthenticationPrincipal AuthenticatedUser principal,
             @RequestParam int pageNo,
             @RequestParam int pageSize) {
 
-        String jwtToken = token.substring(7);
-        String emailId = jwtUtil.extractEmail(jwtToken);
+        String emailId = principal.email();
 
         LOGGER.info("Fetching order history for Email: {} with pageNo: {} and pageSize: {}", emailId, pageNo, pageSize);
-        Page<Order> orderHistory = orderService.getOrderHistory(emailId, pageNo, pageSize);
+        Page<OrderHistoryItemDTO> orderHistory = orderService.getOrderHistory(emailId, principal.userId(), pageNo, pageSize);
 
         if (orderHistory.isEmpty()) {
             LOGGER.warn("No orders found for Email: {}", emailId);
@@ -91,4 +180,68 @@ public class OrderController {
             return ResponseEntity.ok(new APIResponseDTO<>(true, "Fetched Orders Successfully", orderHistory));
         }
     }
+
+    /**
+     * Fetches the number of orders the authenticated user has in each status.
+     *
+     * @param principal The authenticated user, resolved from the JWT by the request filter.
+     * @return ResponseEntity containing the counts per status and their total.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<APIResponseDTO<OrderSummaryDTO>> getOrderSummary(@AuthenticationPrincipal AuthenticatedUser principal) {
+        OrderSummaryDTO summary = orderService.getOrderSummary(principal.email(), principal.userId());
+        return ResponseEntity.ok(new APIResponseDTO<>(true, "Fetched Order Summary Successfully", summary));
+    }
+
+    /**
+     * Fetches the order history for the authenticated user with keyset (cursor) pagination, newest first.
+     *
+     * @param principal The authenticated user, resolved from the JWT by the request filter.
+     * @param cursor    The nextCursor of the previous response; omit it for the first slice.
+     * @param pageSize  The number of orders per slice.
+     * @return ResponseEntity containing the slice of the order history and the cursor of the next slice.
+     */
+    @GetMapping("/history/cursor")
+    public ResponseEntity<APIResponseDTO<CursorPageDTO<OrderHistoryItemDTO>>> getOrderHistoryByCursor(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam int pageSize) {
+
+        CursorPageDTO<OrderHistoryItemDTO> orderHistory =
+                orderService.getOrderHistoryByCursor(principal.email(), principal.userId(), cursor, pageSize);
+        LOGGER.info("Fetched {} orders for Email: {}, hasNext: {}", orderHistory.getSize(), principal.email(), orderHistory.isHasNext());
+        return ResponseEntity.ok(new APIResponseDTO<>(true, "Fetched Orders Successfully", orderHistory));
+    }
+
+    /**
+     * Exports the orders of the authenticated user, oldest first, as NDJSON or CSV.
+     * The rows are streamed from a database cursor straight into the response body, so the
+     * export is not held in memory. Errors after the first bytes are written abort the response.
+     *
+     * @param principal The authenticated user, resolved from the JWT by the request filter.
+     * @param format    The output format, "ndjson" (default) or "csv".
+     * @param from      The inclusive lower bound of the placement timestamp; defaults to the start of the epoch.
+     * @param to        The exclusive upper bound of the placement timestamp; defaults to now.
+     * @param response  The response the export is written to.
+     */
+    @GetMapping("/export")
+    public void exportOrders(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) throws IOException {
+
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        LocalDateTime rangeStart = from != null ? from : EXPORT_RANGE_START;
+        LocalDateTime rangeEnd = to != null ? to : LocalDateTime.now();
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + exportFormat.getFileExtension() + "\"");
+
+        LOGGER.info("Exporting orders for Email: {} as {} from {} to {}", principal.email(), exportFormat, rangeStart, rangeEnd);
+        orderExportService.exportOrders(principal.email(), principal.userId(), rangeStart, rangeEnd, exportFormat,
+                response.getOutputStream());
+    }
 }
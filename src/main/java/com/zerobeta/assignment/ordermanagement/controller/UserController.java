@@ -3,6 +3,7 @@ package com.zerobeta.assignment.ordermanagement.controller;
 import com.zerobeta.assignment.ordermanagement.dto.SignInRequestDTO;
 import com.zerobeta.assignment.ordermanagement.dto.SignUpRequestDTO;
 import com.zerobeta.assignment.ordermanagement.dto.APIResponseDTO;
+import com.zerobeta.assignment.ordermanagement.entity.UserInfoDetails;
 import com.zerobeta.assignment.ordermanagement.exception.EntityNotFoundException;
 import com.zerobeta.assignment.ordermanagement.service.UserService;
 import com.zerobeta.assignment.ordermanagement.service.JwtService;
@@ -60,7 +61,8 @@ public class UserController {
                         signInRequest.getPassword()));
 
         if (authentication.isAuthenticated()) {
-            String token = jwtService.generateToken(signInRequest.getEmail());
+            UserInfoDetails userDetails = (UserInfoDetails) authentication.getPrincipal();
+            String token = jwtService.generateToken(signInRequest.getEmail(), userDetails.getId());
             APIResponseDTO<String> response = new APIResponseDTO<>(true, "Authentication Successful", token);
             return ResponseEntity.ok(response);
         } else {
@@ -0,0 +1,24 @@
+package com.zerobeta.assignment.ordermanagement.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+@AllArgsConstructor
+public class BatchOrderRequestDTO {
+
+    @NotEmpty(message = "At least one order is mandatory")
+    @Size(max = 500, message = "A batch can contain at most 500 orders")
+    private List<@Valid OrderRequestDTO> orders;
+
+    public BatchOrderRequestDTO() {
+
+    }
+}
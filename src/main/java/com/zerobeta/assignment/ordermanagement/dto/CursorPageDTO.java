@@ -0,0 +1,24 @@
+package com.zerobeta.assignment.ordermanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * A slice of results fetched with keyset pagination.
+ * There is no total count; pass nextCursor back to fetch the following slice.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor; // null on the last slice
+    private boolean hasNext;
+
+    public CursorPageDTO() {}
+
+}
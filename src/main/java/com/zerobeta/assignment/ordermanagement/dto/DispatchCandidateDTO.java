@@ -0,0 +1,7 @@
+package com.zerobeta.assignment.ordermanagement.dto;
+
+/**
+ * The columns of a NEW order that the dispatch job needs to dispatch it and record the outbox event.
+ */
+public record DispatchCandidateDTO(Long id, String orderReference) {
+}
@@ -0,0 +1,18 @@
+package com.zerobeta.assignment.ordermanagement.dto;
+
+import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of an order in the order history.
+ * Built directly from the selected columns, so no entity is hydrated or managed.
+ */
+public record OrderHistoryItemDTO(Long id,
+                                  String orderReference,
+                                  String itemName,
+                                  int quantity,
+                                  String shippingAddress,
+                                  OrderStatus status,
+                                  LocalDateTime placementTimestamp) {
+}
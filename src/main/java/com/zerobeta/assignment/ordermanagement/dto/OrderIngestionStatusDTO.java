@@ -0,0 +1,14 @@
+package com.zerobeta.assignment.ordermanagement.dto;
+
+import com.zerobeta.assignment.ordermanagement.enums.IngestionState;
+import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+
+/**
+ * Whether an order accepted for write-behind ingestion has been written to the database.
+ *
+ * @param orderReference The reference returned when the order was accepted.
+ * @param state          QUEUED until the order is committed, then DURABLE, or FAILED if it could not be written.
+ * @param orderStatus    The status of the order once it is durable, otherwise null.
+ */
+public record OrderIngestionStatusDTO(String orderReference, IngestionState state, OrderStatus orderStatus) {
+}
@@ -0,0 +1,14 @@
+package com.zerobeta.assignment.ordermanagement.dto;
+
+import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+
+import java.util.Map;
+
+/**
+ * The number of orders a user has in each status.
+ *
+ * @param counts The count per status; every status is present, with 0 if the user has no such orders.
+ * @param total  The total number of orders of the user.
+ */
+public record OrderSummaryDTO(Map<OrderStatus, Long> counts, long total) {
+}
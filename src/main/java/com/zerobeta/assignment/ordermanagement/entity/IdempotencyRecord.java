@@ -0,0 +1,75 @@
+package com.zerobeta.assignment.ordermanagement.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * The order created for an Idempotency-Key sent by a user, kept so that retries of the
+ * request return that order instead of placing another one.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_created", columnList = "created_at"))
+public class IdempotencyRecord implements Persistable<IdempotencyRecord.Key> {
+
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        @Column(name = "idempotency_key", nullable = false)
+        private String idempotencyKey;
+    }
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "order_reference", nullable = false)
+    private String orderReference;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Makes save() persist rather than merge, so a duplicate key fails on insert instead of overwriting
+    @Transient
+    private boolean newRecord = true;
+
+    public IdempotencyRecord() {
+
+    }
+
+    public IdempotencyRecord(Key id, String requestHash, String orderReference) {
+        this.id = id;
+        this.requestHash = requestHash;
+        this.orderReference = orderReference;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newRecord = false;
+    }
+}
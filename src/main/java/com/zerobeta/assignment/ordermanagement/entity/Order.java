@@ -1,21 +1,34 @@
 package com.zerobeta.assignment.ordermanagement.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
+import com.zerobeta.assignment.ordermanagement.config.HibernateConfig;
 import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Getter
 @Setter
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_order_reference", columnList = "order_reference, placement_timestamp", unique = true),
+        @Index(name = "idx_orders_user_placement", columnList = "user_id, placement_timestamp, id")})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateConfig.ORDER_REGION)
+@NaturalIdCache(region = HibernateConfig.ORDER_REFERENCE_REGION)
 public class Order {
 
+    // Table-based pooled ids let Hibernate batch inserts; IDENTITY forces one INSERT round trip per order.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_id_generator")
+    @TableGenerator(name = "order_id_generator", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "orders", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -23,7 +36,10 @@ public class Order {
     @JsonBackReference
     private User user;
 
-    @Column(name = "order_reference", nullable = false, unique = true)
+    // Unique through idx_order_reference: the partitioned table cannot have a unique key without
+    // placement_timestamp, which is taken from the reference so equal references always collide
+    @NaturalId
+    @Column(name = "order_reference", nullable = false)
     private String orderReference;
 
     @Column(name = "item_name", nullable = false)
@@ -42,6 +58,11 @@ public class Order {
     @Column(name = "placement_timestamp", nullable = false)
     private LocalDateTime placementTimestamp;
 
+    // Bulk JPQL updates bypass the entity lifecycle, so they must increment this themselves
+    @Version
+    @JsonIgnore
+    @Column(nullable = false)
+    private long version;
 
     public Order() {
 
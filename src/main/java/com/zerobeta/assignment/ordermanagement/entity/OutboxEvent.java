@@ -0,0 +1,48 @@
+package com.zerobeta.assignment.ordermanagement.entity;
+
+import com.zerobeta.assignment.ordermanagement.enums.OrderEventType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * An order status change recorded in the same transaction as the change itself,
+ * and relayed to downstream consumers by the OutboxRelay job.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "order_outbox", indexes = @Index(name = "idx_outbox_unpublished", columnList = "published_at, id"))
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "outbox_id_generator")
+    @TableGenerator(name = "outbox_id_generator", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "order_outbox", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "order_reference", nullable = false)
+    private String orderReference;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private OrderEventType eventType;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    public OutboxEvent() {
+
+    }
+
+    public OutboxEvent(String orderReference, OrderEventType eventType) {
+        this.orderReference = orderReference;
+        this.eventType = eventType;
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -1,9 +1,12 @@
 package com.zerobeta.assignment.ordermanagement.entity;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.zerobeta.assignment.ordermanagement.config.HibernateConfig;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -12,6 +15,7 @@ import java.util.Set;
 @Setter
 @Entity
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateConfig.USER_REGION)
 public class User {
 
     @Id
@@ -13,6 +13,7 @@ import java.util.Collections;
  */
 public class UserInfoDetails implements UserDetails {
 
+    private final Long id;
     private final String email;  // Use email as username
     private final String password;
 
@@ -22,10 +23,33 @@ public class UserInfoDetails implements UserDetails {
      * @param userInfo The User object containing user information.
      */
     public UserInfoDetails(User userInfo) {
+        this.id = userInfo.getId();
         this.email = userInfo.getEmail();  // Set email as username
         this.password = userInfo.getPassword();
     }
 
+    /**
+     * Constructor that initializes UserInfoDetails from the individual fields.
+     *
+     * @param id       The id of the user.
+     * @param email    The email of the user.
+     * @param password The encoded password of the user.
+     */
+    public UserInfoDetails(Long id, String email, String password) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+    }
+
+    /**
+     * Returns the id of the user, which is embedded in the issued JWT.
+     *
+     * @return The id of the user.
+     */
+    public Long getId() {
+        return id;
+    }
+
     /**
      * Returns the authorities granted to the user.
      * In this implementation, no specific authorities are provided.
@@ -0,0 +1,53 @@
+package com.zerobeta.assignment.ordermanagement.entity;
+
+import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+
+/**
+ * The number of orders a user has in one status, maintained in the same transaction as every
+ * change to the user's orders. Rows are only written by the native upserts in
+ * {@link com.zerobeta.assignment.ordermanagement.repository.UserOrderCountRepository}.
+ */
+@Getter
+@Entity
+@Immutable
+@Table(name = "user_order_counts")
+public class UserOrderCount {
+
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false, length = 32)
+        private OrderStatus status;
+    }
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    public UserOrderCount() {
+
+    }
+
+    public UserOrderCount(Key id, long orderCount) {
+        this.id = id;
+        this.orderCount = orderCount;
+    }
+}
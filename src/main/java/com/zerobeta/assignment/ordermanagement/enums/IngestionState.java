@@ -0,0 +1,7 @@
+package com.zerobeta.assignment.ordermanagement.enums;
+
+public enum IngestionState {
+    QUEUED,
+    DURABLE,
+    FAILED
+}
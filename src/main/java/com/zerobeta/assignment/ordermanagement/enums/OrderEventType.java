@@ -0,0 +1,6 @@
+package com.zerobeta.assignment.ordermanagement.enums;
+
+public enum OrderEventType {
+    ORDER_DISPATCHED,
+    ORDER_CANCELLED
+}
@@ -0,0 +1,12 @@
+package com.zerobeta.assignment.ordermanagement.exception;
+
+/**
+ * Thrown when an endpoint is called whose feature is switched off by configuration.
+ * Answered with 404, as if the endpoint did not exist.
+ */
+public class FeatureDisabledException extends RuntimeException {
+
+    public FeatureDisabledException(String message) {
+        super(message);
+    }
+}
@@ -1,8 +1,10 @@
 package com.zerobeta.assignment.ordermanagement.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -24,11 +26,35 @@ public class GlobalExceptionHandler {
         return buildResponseEntity(ex.getMessage(), request, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(FeatureDisabledException.class)
+    public ResponseEntity<ErrorDetails> handleFeatureDisabled(FeatureDisabledException ex, WebRequest request) {
+        return buildResponseEntity(ex.getMessage(), request, HttpStatus.NOT_FOUND);
+    }
+
     @ExceptionHandler(UserAlreadyExistsException.class)
     public ResponseEntity<ErrorDetails> handleUserAlreadyExists(UserAlreadyExistsException ex, WebRequest request) {
         return buildResponseEntity(ex.getMessage(), request, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ErrorDetails> handleIdempotencyConflict(IdempotencyConflictException ex, WebRequest request) {
+        return buildResponseEntity(ex.getMessage(), request, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorDetails> handleServiceOverloaded(ServiceOverloadedException ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(ex.getMessage(), request.getDescription(false));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorDetails);
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorDetails> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex, WebRequest request) {
+        String errorMessage = "The order was modified concurrently. Please retry the request.";
+        return buildResponseEntity(errorMessage, request, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(NoResourceFoundException.class)
     public ResponseEntity<ErrorDetails> handleNoHandlerFoundException(NoResourceFoundException ex, WebRequest request) {
         String errorMessage = "The requested URL was not found on this server.";
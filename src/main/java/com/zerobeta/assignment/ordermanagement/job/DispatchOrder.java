@@ -1,44 +1,220 @@
 package com.zerobeta.assignment.ordermanagement.job;
 
-import com.zerobeta.assignment.ordermanagement.entity.Order;
+import com.zerobeta.assignment.ordermanagement.dto.DispatchCandidateDTO;
+import com.zerobeta.assignment.ordermanagement.entity.OutboxEvent;
+import com.zerobeta.assignment.ordermanagement.enums.OrderEventType;
 import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
-import com.zerobeta.assignment.ordermanagement.repository.OrderRepository;
-import jakarta.transaction.Transactional;
+import com.zerobeta.assignment.ordermanagement.repository.OutboxEventRepository;
+import com.zerobeta.assignment.ordermanagement.service.OrderMetrics;
+import com.zerobeta.assignment.ordermanagement.store.OrderStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service that handles the automatic dispatching of orders.
  * This class contains a scheduled job that runs at fixed intervals to
  * change the status of new orders to dispatched.
+ *
+ * Orders are dispatched in keyset chunks by id, each committed in its own short transaction,
+ * so row locks are only held for one chunk at a time and cancellations and inserts are not
+ * blocked for the whole run. The id range can be split across several parallel workers.
+ * Each chunk records an ORDER_DISPATCHED outbox event per order in the same transaction.
+ * If fewer orders are updated than were selected, the chunk is rolled back and retried, so no
+ * event is recorded for an order that was not dispatched.
  */
 @Service
 public class DispatchOrder {
 
     private static final Logger logger = LoggerFactory.getLogger(DispatchOrder.class);
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
 
-    private final OrderRepository orderRepository;
+    private final OrderStore orderStore;
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderMetrics orderMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int parallelism;
 
     @Autowired
-    public DispatchOrder(OrderRepository orderRepository) {
-        this.orderRepository = orderRepository;
+    public DispatchOrder(OrderStore orderStore,
+                         OutboxEventRepository outboxEventRepository,
+                         OrderMetrics orderMetrics,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${order.dispatch.batch.size:1000}") int batchSize,
+                         @Value("${order.dispatch.parallelism:1}") int parallelism) {
+        if (batchSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Dispatch batch size and parallelism must be > 0");
+        }
+        this.orderStore = orderStore;
+        this.outboxEventRepository = outboxEventRepository;
+        this.orderMetrics = orderMetrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
     }
 
     /**
      * Scheduled job that runs every hour to dispatch new orders.
-     * This method fetches all orders with a status of NEW and
-     * updates their status to DISPATCHED in bulk.
+     * This method splits the ids of all orders with a status of NEW into ranges and
+     * updates their status to DISPATCHED chunk by chunk. Every query is bounded by the oldest
+     * NEW placement timestamp, so partitions of fully dispatched months are not read.
      */
     @Scheduled(cron = "0 0 * * * *")
-    @Transactional
     public void dispatchOrders() {
-        orderRepository.updateOrderStatus(OrderStatus.NEW, OrderStatus.DISPATCHED);
+        long startTime = System.nanoTime();
 
-        logger.info("Order dispatch job completed.");
+        LocalDateTime since = orderStore.findOldestPlacementByStatus(OrderStatus.NEW);
+        Long minId = since == null ? null : orderStore.findMinIdByStatus(OrderStatus.NEW, since);
+        Long maxId = since == null ? null : orderStore.findMaxIdByStatus(OrderStatus.NEW, since);
+        if (minId == null || maxId == null) {
+            orderMetrics.recordDispatchRun(System.nanoTime() - startTime, 0);
+            logger.info("Order dispatch job completed. No new orders to dispatch.");
+            return;
+        }
+
+        long dispatched = parallelism == 1
+                ? dispatchRange(1, since, minId - 1, maxId)
+                : dispatchInParallel(since, minId - 1, maxId);
+
+        long elapsedNanos = System.nanoTime() - startTime;
+        orderMetrics.recordDispatchRun(elapsedNanos, dispatched);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        logger.info("Order dispatch job completed. Dispatched {} orders in {} ms ({} orders/s).",
+                dispatched, elapsedMillis, ratePerSecond(dispatched, elapsedMillis));
+    }
+
+    /**
+     * Splits (afterId, maxId] into equal ranges and dispatches each range on its own worker.
+     */
+    private long dispatchInParallel(LocalDateTime since, long afterId, long maxId) {
+        long rangeSize = Math.max(1, (maxId - afterId + parallelism - 1) / parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            int rangeNo = 1;
+            for (long rangeStart = afterId; rangeStart < maxId; rangeStart += rangeSize, rangeNo++) {
+                long rangeAfterId = rangeStart;
+                long rangeMaxId = Math.min(maxId, rangeStart + rangeSize);
+                int currentRangeNo = rangeNo;
+                results.add(executor.submit(() -> dispatchRange(currentRangeNo, since, rangeAfterId, rangeMaxId)));
+            }
+
+            long dispatched = 0;
+            for (Future<Long> result : results) {
+                dispatched += result.get();
+            }
+            return dispatched;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Order dispatch job was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Order dispatch job failed", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Dispatches the NEW orders with ids in (afterId, maxId], one committed chunk at a time.
+     *
+     * @return The number of orders dispatched in the range.
+     */
+    long dispatchRange(int rangeNo, LocalDateTime since, long afterId, long maxId) {
+        long dispatched = 0;
+        long lastId = afterId;
+        int chunkNo = 0;
+        int attempts = 0;
+
+        while (true) {
+            long chunkStart = System.nanoTime();
+            long chunkAfterId = lastId;
+            ChunkResult chunk = transactionTemplate.execute(status -> dispatchChunk(status, since, chunkAfterId, maxId));
+            if (chunk == null) {
+                break;
+            }
+            if (chunk.conflict()) {
+                if (++attempts >= MAX_CHUNK_ATTEMPTS) {
+                    throw new IllegalStateException("Dispatch range " + rangeNo + " kept conflicting after id " + lastId);
+                }
+                logger.warn("Dispatch range {} chunk after id {} conflicted with a concurrent update, retrying.", rangeNo, lastId);
+                continue;
+            }
+            attempts = 0;
+
+            chunkNo++;
+            dispatched += chunk.dispatched();
+            lastId = chunk.lastId();
+
+            long chunkMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - chunkStart);
+            logger.info("Dispatch range {} chunk {}: dispatched {} orders up to id {} in {} ms ({} orders/s).",
+                    rangeNo, chunkNo, chunk.dispatched(), chunk.lastId(), chunkMillis,
+                    ratePerSecond(chunk.dispatched(), chunkMillis));
+
+            if (chunk.selected() < batchSize) {
+                break;
+            }
+        }
+        return dispatched;
+    }
+
+    /**
+     * Selects and locks the next chunk of NEW orders after the given id, dispatches them
+     * and records their outbox events. Runs inside the chunk's transaction.
+     *
+     * @return The chunk result, or null when there is nothing left in the range.
+     */
+    private ChunkResult dispatchChunk(TransactionStatus status, LocalDateTime since, long afterId, long maxId) {
+        List<DispatchCandidateDTO> candidates = orderStore.findDispatchCandidates(OrderStatus.NEW, since, afterId, maxId,
+                PageRequest.of(0, batchSize));
+        if (candidates.isEmpty()) {
+            return null;
+        }
+
+        List<Long> ids = new ArrayList<>(candidates.size());
+        List<OutboxEvent> events = new ArrayList<>(candidates.size());
+        for (DispatchCandidateDTO candidate : candidates) {
+            ids.add(candidate.id());
+            events.add(new OutboxEvent(candidate.orderReference(), OrderEventType.ORDER_DISPATCHED));
+        }
+
+        int dispatched = orderStore.updateOrderStatusByIds(ids, since, OrderStatus.NEW, OrderStatus.DISPATCHED);
+        if (dispatched != ids.size()) {
+            // A concurrent change, if the store does not lock the candidates; never publish events for orders left untouched
+            orderMetrics.dispatchConflict();
+            status.setRollbackOnly();
+            return ChunkResult.CONFLICT;
+        }
+        outboxEventRepository.saveAll(events);
+        return new ChunkResult(ids.get(ids.size() - 1), ids.size(), dispatched);
+    }
+
+    private static long ratePerSecond(long count, long elapsedMillis) {
+        return elapsedMillis == 0 ? count * 1000 : count * 1000 / elapsedMillis;
+    }
+
+    private record ChunkResult(long lastId, int selected, int dispatched) {
+
+        static final ChunkResult CONFLICT = new ChunkResult(-1, -1, 0);
+
+        boolean conflict() {
+            return this == CONFLICT;
+        }
     }
 }
@@ -0,0 +1,45 @@
+package com.zerobeta.assignment.ordermanagement.job;
+
+import com.zerobeta.assignment.ordermanagement.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Service that deletes idempotency keys once they are older than their time to live.
+ */
+@Service
+public class IdempotencyKeyPurge {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyKeyPurge.class);
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long ttlHours;
+
+    @Autowired
+    public IdempotencyKeyPurge(IdempotencyRecordRepository idempotencyRecordRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${idempotency.key.ttl.hours:24}") long ttlHours) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttlHours = ttlHours;
+    }
+
+    /**
+     * Scheduled job that runs every hour to delete expired idempotency keys.
+     */
+    @Scheduled(cron = "0 15 * * * *")
+    public void purgeExpiredKeys() {
+        LocalDateTime before = LocalDateTime.now().minusHours(ttlHours);
+        Integer deleted = transactionTemplate.execute(status -> idempotencyRecordRepository.deleteCreatedBefore(before));
+        logger.info("Purged {} expired idempotency keys.", deleted);
+    }
+}
@@ -0,0 +1,48 @@
+package com.zerobeta.assignment.ordermanagement.job;
+
+import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+import com.zerobeta.assignment.ordermanagement.store.OrderStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service that publishes the size and age of the dispatch backlog as gauges.
+ *
+ * The gauges read values refreshed on a schedule, so a scrape never runs a query.
+ */
+@Service
+public class OrderBacklogMonitor {
+
+    private final OrderStore orderStore;
+    private final AtomicLong backlogCount = new AtomicLong();
+    private final AtomicLong oldestAgeSeconds = new AtomicLong();
+
+    @Autowired
+    public OrderBacklogMonitor(OrderStore orderStore, MeterRegistry meterRegistry) {
+        this.orderStore = orderStore;
+        Gauge.builder("orders.backlog.count", backlogCount, AtomicLong::get)
+                .description("Orders waiting to be dispatched")
+                .register(meterRegistry);
+        Gauge.builder("orders.backlog.oldest.age", oldestAgeSeconds, AtomicLong::get)
+                .description("Age of the oldest order waiting to be dispatched")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Scheduled job that refreshes the backlog gauges.
+     */
+    @Scheduled(fixedDelayString = "${order.backlog.refresh.ms:30000}")
+    public void refresh() {
+        backlogCount.set(orderStore.countByStatus(OrderStatus.NEW));
+        LocalDateTime oldest = orderStore.findOldestPlacementByStatus(OrderStatus.NEW);
+        oldestAgeSeconds.set(oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).getSeconds());
+    }
+}
@@ -0,0 +1,252 @@
+package com.zerobeta.assignment.ordermanagement.job;
+
+import com.zerobeta.assignment.ordermanagement.entity.Order;
+import com.zerobeta.assignment.ordermanagement.store.LogStructuredOrderStore;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Service that keeps the monthly partitions of the orders table in shape.
+ *
+ * Month partitions are named pYYYYMM and hold orders placed before the first day of the following
+ * month. New months are split off the empty p_future partition ahead of time, so inserts never land
+ * in it. When {@code order.partition.retention.months} is set, months older than that are removed:
+ * exchanged into an orders_expiring_pYYYYMM table, dropped from the orders table, taken out of the
+ * per-user counts, and then the table is dropped, or with {@code order.partition.expiry.mode=archive}
+ * renamed to orders_archive_pYYYYMM. Each step can be retried after a failure; a removal left
+ * unfinished is completed by the next run. Months that still hold NEW orders are kept until they are
+ * dispatched or cancelled. Runs are serialized across instances by a MySQL named lock. The job does
+ * nothing when the orders table is not partitioned, and is not created when orders are kept by the
+ * log-structured order store.
+ */
+@Service
+@Profile("!" + LogStructuredOrderStore.PROFILE)
+public class OrderPartitionMaintenance {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderPartitionMaintenance.class);
+
+    static final String FUTURE_PARTITION = "p_future";
+    static final String EXPIRING_PREFIX = "orders_expiring_";
+    static final String ARCHIVE_PREFIX = "orders_archive_";
+    private static final String LOCK_NAME = "order_partition_maintenance";
+    private static final Pattern MONTH_PARTITION = Pattern.compile("p\\d{6}");
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM", Locale.ROOT);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SessionFactory sessionFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final boolean archive;
+
+    @Autowired
+    public OrderPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                     EntityManagerFactory entityManagerFactory,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${order.partition.months.ahead:3}") int monthsAhead,
+                                     @Value("${order.partition.retention.months:0}") int retentionMonths,
+                                     @Value("${order.partition.expiry.mode:drop}") String expiryMode) {
+        if (!"drop".equals(expiryMode) && !"archive".equals(expiryMode)) {
+            throw new IllegalArgumentException("Order partition expiry mode must be drop or archive: " + expiryMode);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.archive = "archive".equals(expiryMode);
+    }
+
+    /**
+     * Runs once at startup, so a new deployment gets its month partitions before the first orders.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    /**
+     * Scheduled job that runs every day to create upcoming and remove expired partitions. It runs in one
+     * transaction only so that every statement uses the connection holding the lock; DDL commits implicitly.
+     */
+    @Scheduled(cron = "0 30 2 * * *")
+    public void maintainPartitions() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<String> partitions;
+            try {
+                partitions = findPartitions();
+            } catch (DataAccessException e) {
+                logger.debug("Order partition maintenance skipped; partition metadata is not available.", e);
+                return;
+            }
+            if (!partitions.contains(FUTURE_PARTITION)) {
+                logger.debug("Order partition maintenance skipped; the orders table is not partitioned by month.");
+                return;
+            }
+            if (!Integer.valueOf(1).equals(jdbcTemplate.queryForObject("SELECT GET_LOCK(?, 0)", Integer.class, LOCK_NAME))) {
+                logger.info("Order partition maintenance skipped; another instance is running it.");
+                return;
+            }
+            try {
+                maintainPartitions(findPartitions());
+            } finally {
+                jdbcTemplate.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, LOCK_NAME);
+            }
+        });
+    }
+
+    private void maintainPartitions(List<String> partitions) {
+        List<String> remaining = new ArrayList<>(partitions);
+        List<String> unfinished = jdbcTemplate.queryForList("SELECT TABLE_NAME FROM information_schema.TABLES " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME LIKE 'orders\\_expiring\\_p%' ORDER BY TABLE_NAME", String.class);
+        for (String table : unfinished) {
+            String partition = table.substring(EXPIRING_PREFIX.length());
+            logger.info("Completing the removal of order partition {}.", partition);
+            removePartition(partition, remaining.remove(partition));
+        }
+
+        YearMonth currentMonth = YearMonth.now();
+        createPartitions(remaining, currentMonth);
+        if (retentionMonths > 0) {
+            removeExpiredPartitions(remaining, currentMonth.minusMonths(retentionMonths));
+        }
+    }
+
+    private List<String> findPartitions() {
+        return jdbcTemplate.queryForList("SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'orders' AND PARTITION_NAME IS NOT NULL " +
+                "ORDER BY PARTITION_ORDINAL_POSITION", String.class);
+    }
+
+    /**
+     * Splits every missing month from the current one to monthsAhead months ahead off p_future.
+     * Months already covered by a later existing partition are skipped.
+     */
+    private void createPartitions(List<String> partitions, YearMonth currentMonth) {
+        YearMonth lastCovered = partitions.stream()
+                .filter(name -> MONTH_PARTITION.matcher(name).matches())
+                .map(OrderPartitionMaintenance::monthOf)
+                .max(YearMonth::compareTo)
+                .orElse(currentMonth.minusMonths(1));
+
+        StringBuilder newPartitions = new StringBuilder();
+        for (YearMonth month = lastCovered.plusMonths(1); !month.isAfter(currentMonth.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            newPartitions.append("PARTITION ").append(partitionName(month))
+                    .append(" VALUES LESS THAN ('").append(month.plusMonths(1).atDay(1)).append(" 00:00:00'), ");
+        }
+        if (newPartitions.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE orders REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO (" + newPartitions +
+                "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+        logger.info("Created order partitions up to {}.", partitionName(currentMonth.plusMonths(monthsAhead)));
+    }
+
+    /**
+     * Removes the month partitions before the given month, oldest first, stopping at the first that
+     * still holds NEW orders so the remaining months stay contiguous.
+     */
+    private void removeExpiredPartitions(List<String> partitions, YearMonth firstRetainedMonth) {
+        for (String partition : partitions) {
+            if (!MONTH_PARTITION.matcher(partition).matches() || !monthOf(partition).isBefore(firstRetainedMonth)) {
+                continue;
+            }
+            Long newOrders = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM orders PARTITION (" + partition + ") WHERE status = 'NEW'", Long.class);
+            if (newOrders != null && newOrders > 0) {
+                logger.warn("Keeping expired order partition {}; it still holds {} NEW orders.", partition, newOrders);
+                return;
+            }
+            removePartition(partition, true);
+        }
+    }
+
+    /**
+     * Removes a month partition. Every step checks what an earlier, failed attempt already did, so a
+     * removal can be resumed from any point.
+     */
+    private void removePartition(String partition, boolean partitionExists) {
+        String expiringTable = EXPIRING_PREFIX + partition;
+        if (partitionExists) {
+            if (!tableExists(expiringTable)) {
+                jdbcTemplate.execute("CREATE TABLE " + expiringTable + " LIKE orders");
+            }
+            if (isPartitioned(expiringTable)) {
+                jdbcTemplate.execute("ALTER TABLE " + expiringTable + " REMOVE PARTITIONING");
+            }
+            // A table that already holds orders got them from this partition; exchanging again would swap them back
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + expiringTable + ")", Boolean.class))) {
+                jdbcTemplate.execute("ALTER TABLE orders EXCHANGE PARTITION " + partition + " WITH TABLE " + expiringTable);
+            }
+            jdbcTemplate.execute("ALTER TABLE orders DROP PARTITION " + partition);
+
+            // Removed orders may still sit in the second-level cache
+            sessionFactory.getCache().evictEntityData(Order.class);
+            sessionFactory.getCache().evictNaturalIdData(Order.class);
+        }
+
+        // The orders leave the per-user counts only now that they are gone. The marker row commits with the
+        // counts at the next DDL statement, so a retry does not subtract them twice.
+        Long adjusted = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM order_partition_removals WHERE partition_name = ?", Long.class, partition);
+        if (adjusted == null || adjusted == 0) {
+            jdbcTemplate.update("INSERT INTO user_order_counts (user_id, status, order_count) " +
+                    "SELECT user_id, status, -COUNT(*) FROM " + expiringTable + " GROUP BY user_id, status " +
+                    "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count)");
+            jdbcTemplate.update("INSERT INTO order_partition_removals (partition_name, removed_at) VALUES (?, NOW())", partition);
+        }
+
+        if (archive) {
+            String archiveTable = ARCHIVE_PREFIX + partition;
+            if (tableExists(archiveTable)) {
+                logger.warn("Keeping {}; the archive table {} already exists.", expiringTable, archiveTable);
+                return;
+            }
+            jdbcTemplate.execute("RENAME TABLE " + expiringTable + " TO " + archiveTable);
+            logger.info("Archived order partition {} to {}.", partition, archiveTable);
+        } else {
+            jdbcTemplate.execute("DROP TABLE " + expiringTable);
+        }
+        logger.info("Removed expired order partition {}.", partition);
+    }
+
+    private boolean tableExists(String table) {
+        Long tables = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.TABLES " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?", Long.class, table);
+        return tables != null && tables > 0;
+    }
+
+    private boolean isPartitioned(String table) {
+        Long partitions = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL", Long.class, table);
+        return partitions != null && partitions > 0;
+    }
+
+    static String partitionName(YearMonth month) {
+        return "p" + month.format(MONTH_FORMAT);
+    }
+
+    static YearMonth monthOf(String partitionName) {
+        return YearMonth.parse(partitionName.substring(1), MONTH_FORMAT);
+    }
+}
@@ -0,0 +1,92 @@
+package com.zerobeta.assignment.ordermanagement.job;
+
+import com.zerobeta.assignment.ordermanagement.entity.OutboxEvent;
+import com.zerobeta.assignment.ordermanagement.repository.OutboxEventRepository;
+import com.zerobeta.assignment.ordermanagement.service.OrderEventSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service that relays order events from the outbox table to the {@link OrderEventSink}.
+ * Unpublished events are read incrementally in id order, published, and marked as published in
+ * the same transaction, which gives at-least-once delivery: if marking fails, the batch is
+ * published again on the next run.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderEventSink orderEventSink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatches;
+    private final long retentionHours;
+
+    @Autowired
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OrderEventSink orderEventSink,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${outbox.relay.batch.size:500}") int batchSize,
+                       @Value("${outbox.relay.max.batches:20}") int maxBatches,
+                       @Value("${outbox.retention.hours:24}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.orderEventSink = orderEventSink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.retentionHours = retentionHours;
+    }
+
+    /**
+     * Scheduled job that drains the outbox in batches until it is empty, or for at most
+     * {@code outbox.relay.max.batches} batches, so that a large backlog does not hold the shared
+     * scheduler thread; the next run continues where this one stopped.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval.ms:1000}")
+    public void relayEvents() {
+        int relayed = 0;
+        int batches = 0;
+        Integer published;
+        do {
+            published = transactionTemplate.execute(status -> relayBatch());
+            relayed += published;
+        } while (published == batchSize && ++batches < maxBatches);
+
+        if (relayed > 0) {
+            logger.info("Relayed {} order events from the outbox.", relayed);
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = outboxEventRepository.findUnpublished(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        orderEventSink.publish(events);
+        outboxEventRepository.markPublished(events.stream().map(OutboxEvent::getId).toList(), LocalDateTime.now());
+        return events.size();
+    }
+
+    /**
+     * Scheduled job that runs every hour to delete events that were published before the retention period.
+     */
+    @Scheduled(cron = "0 30 * * * *")
+    public void purgePublishedEvents() {
+        LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deletePublishedBefore(before));
+        logger.info("Purged {} published order events from the outbox.", deleted);
+    }
+}
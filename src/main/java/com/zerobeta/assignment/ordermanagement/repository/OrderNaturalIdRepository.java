@@ -0,0 +1,15 @@
+package com.zerobeta.assignment.ordermanagement.repository;
+
+import com.zerobeta.assignment.ordermanagement.entity.Order;
+
+import java.util.Optional;
+
+/**
+ * Order lookups by natural id, which go through Hibernate's natural-id and entity caches
+ * instead of always querying the database. Cache misses are bounded by {@link
+ * com.zerobeta.assignment.ordermanagement.util.PlacementWindow}.
+ */
+public interface OrderNaturalIdRepository {
+
+    Optional<Order> findByOrderReference(String orderReference);
+}
@@ -0,0 +1,41 @@
+package com.zerobeta.assignment.ordermanagement.repository;
+
+import com.zerobeta.assignment.ordermanagement.entity.Order;
+import com.zerobeta.assignment.ordermanagement.util.PlacementWindow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.Optional;
+
+class OrderNaturalIdRepositoryImpl implements OrderNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Resolves the reference from the natural-id cache, or on a miss with a query bounded by the placement
+     * window of the reference. Hibernate's own natural-id load would query every partition on a miss;
+     * Hibernate filters do not apply to it.
+     */
+    @Override
+    public Optional<Order> findByOrderReference(String orderReference) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Order.class);
+        Object id = session.getPersistenceContextInternal().getNaturalIdResolutions()
+                .findCachedIdByNaturalId(orderReference, persister);
+        if (id != null) {
+            return Optional.ofNullable(entityManager.find(Order.class, id));
+        }
+
+        PlacementWindow window = PlacementWindow.ofReference(orderReference);
+        return entityManager.createQuery("SELECT o FROM Order o WHERE o.orderReference = :orderReference " +
+                        "AND o.placementTimestamp BETWEEN :from AND :to", Order.class)
+                .setParameter("orderReference", orderReference)
+                .setParameter("from", window.from())
+                .setParameter("to", window.to())
+                .getResultStream()
+                .findFirst();
+    }
+}
@@ -1,28 +1,141 @@
 package com.zerobeta.assignment.ordermanagement.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import com.zerobeta.assignment.ordermanagement.dto.DispatchCandidateDTO;
+import com.zerobeta.assignment.ordermanagement.dto.OrderHistoryItemDTO;
 import com.zerobeta.assignment.ordermanagement.entity.Order;
 import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+import com.zerobeta.assignment.ordermanagement.util.PlacementWindow;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderNaturalIdRepository {
 
-    List<Order> findByStatus(OrderStatus status);
+    // The dispatch queries are bounded below by the oldest placement timestamp of the status, so MySQL
+    // prunes the partitions of the orders table that hold no such orders
+
+    @Query("SELECT MIN(o.id) FROM Order o WHERE o.status = :status AND o.placementTimestamp >= :since")
+    Long findMinIdByStatus(@Param("status") OrderStatus status, @Param("since") LocalDateTime since);
+
+    @Query("SELECT MAX(o.id) FROM Order o WHERE o.status = :status AND o.placementTimestamp >= :since")
+    Long findMaxIdByStatus(@Param("status") OrderStatus status, @Param("since") LocalDateTime since);
+
+    long countByStatus(OrderStatus status);
+
+    @Query("SELECT MIN(o.placementTimestamp) FROM Order o WHERE o.status = :status")
+    LocalDateTime findOldestPlacementByStatus(@Param("status") OrderStatus status);
+
+    /**
+     * Keyset query for the next chunk of orders with the given status in the id range (afterId, maxId].
+     * The page size of the pageable limits the chunk; its offset must be 0.
+     * The rows stay locked until the chunk's transaction ends, so they cannot change status in between.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.zerobeta.assignment.ordermanagement.dto.DispatchCandidateDTO(o.id, o.orderReference) " +
+            "FROM Order o WHERE o.status = :status AND o.placementTimestamp >= :since " +
+            "AND o.id > :afterId AND o.id <= :maxId ORDER BY o.id")
+    List<DispatchCandidateDTO> findDispatchCandidates(@Param("status") OrderStatus status, @Param("since") LocalDateTime since,
+                                                      @Param("afterId") long afterId, @Param("maxId") long maxId,
+                                                      Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status, o.version = o.version + 1 " +
+            "WHERE o.id IN :ids AND o.placementTimestamp >= :since AND o.status = :currentStatus")
+    int updateOrderStatusByIds(@Param("ids") List<Long> ids, @Param("since") LocalDateTime since,
+                               @Param("currentStatus") OrderStatus currentStatus, @Param("status") OrderStatus status);
+
+    String EXPORT_FETCH_SIZE = "1000";
+
+    // Constructor expression selecting only the columns of the order history, shared by the history queries
+    String HISTORY_ITEM = "SELECT new com.zerobeta.assignment.ordermanagement.dto.OrderHistoryItemDTO(" +
+            "o.id, o.orderReference, o.itemName, o.quantity, o.shippingAddress, o.status, o.placementTimestamp) ";
+
+    // The history page is deliberately not bounded by placement timestamp: any lower bound would hide the
+    // user's older orders. Newest first with a LIMIT, it costs one idx_orders_user_placement dive per partition.
+
+    /**
+     * Page of a user's order history at the offset of the pageable, newest first, served by
+     * idx_orders_user_placement. Also gives the first cursor slice, at offset 0. No count query is run;
+     * the total comes from the user's order counts.
+     */
+    @Query(HISTORY_ITEM + "FROM Order o WHERE o.user.id = :userId ORDER BY o.placementTimestamp DESC, o.id DESC")
+    List<OrderHistoryItemDTO> findHistoryPage(@Param("userId") Long userId, Pageable pageable);
+
+    // Lookups by reference are bounded by the placement window the reference implies, so MySQL
+    // only reads the partitions that can hold the order
+
+    default boolean existsByOrderReference(String orderReference) {
+        PlacementWindow window = PlacementWindow.ofReference(orderReference);
+        return existsByOrderReferenceAndPlacementTimestampBetween(orderReference, window.from(), window.to());
+    }
+
+    boolean existsByOrderReferenceAndPlacementTimestampBetween(String orderReference, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Conditionally moves one of the user's orders from the current to the new status.
+     * The whole check-and-set is a single statement, so it cannot interleave with a dispatch.
+     *
+     * @return 1 if the order was updated, or 0 if it does not exist, belongs to another user
+     *         or is no longer in the current status.
+     */
+    default int updateOrderStatusForUser(String orderReference, Long userId, OrderStatus currentStatus, OrderStatus status) {
+        PlacementWindow window = PlacementWindow.ofReference(orderReference);
+        return updateOrderStatusForUser(orderReference, userId, window.from(), window.to(), currentStatus, status);
+    }
 
     @Modifying
-    @Query("UPDATE Order o SET o.status = :status WHERE o.status = :currentStatus")
-    void updateOrderStatus(@Param("currentStatus") OrderStatus currentStatus, @Param("status") OrderStatus status);
+    @Query("UPDATE Order o SET o.status = :status, o.version = o.version + 1 " +
+            "WHERE o.orderReference = :orderReference AND o.placementTimestamp BETWEEN :from AND :to " +
+            "AND o.user.id = :userId AND o.status = :currentStatus")
+    int updateOrderStatusForUser(@Param("orderReference") String orderReference, @Param("userId") Long userId,
+                                 @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                 @Param("currentStatus") OrderStatus currentStatus, @Param("status") OrderStatus status);
+
+    default Optional<OrderStatus> findStatusForUser(String orderReference, Long userId) {
+        PlacementWindow window = PlacementWindow.ofReference(orderReference);
+        return findStatusForUser(orderReference, userId, window.from(), window.to());
+    }
 
+    @Query("SELECT o.status FROM Order o WHERE o.orderReference = :orderReference " +
+            "AND o.placementTimestamp BETWEEN :from AND :to AND o.user.id = :userId")
+    Optional<OrderStatus> findStatusForUser(@Param("orderReference") String orderReference, @Param("userId") Long userId,
+                                            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
-    @Query("SELECT o FROM Order o WHERE o.user.email = :email")
-    Page<Order> findByUserEmail(String email, Pageable pageable);
+    /**
+     * Streams a user's orders placed in [from, to), oldest first, for exports.
+     * The rows are fetched from a forward-only cursor in batches of the fetch size instead of being
+     * materialized; on MySQL this needs useCursorFetch=true on the JDBC URL. The caller must consume
+     * and close the stream inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(HISTORY_ITEM + "FROM Order o WHERE o.user.id = :userId AND o.placementTimestamp >= :from " +
+            "AND o.placementTimestamp < :to ORDER BY o.placementTimestamp, o.id")
+    Stream<OrderHistoryItemDTO> streamForExport(@Param("userId") Long userId, @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
 
-    Optional<Order> findByOrderReference(String orderReference);
+    /**
+     * Slice of a user's order history that follows the order at (placementTimestamp, id), newest first.
+     * Seeks directly to the position in idx_orders_user_placement instead of skipping an OFFSET. The redundant
+     * upper bound lets MySQL prune the partitions of newer months, which the OR alone does not.
+     */
+    @Query(HISTORY_ITEM + "FROM Order o WHERE o.user.id = :userId AND o.placementTimestamp <= :placementTimestamp " +
+            "AND (o.placementTimestamp < :placementTimestamp OR (o.placementTimestamp = :placementTimestamp AND o.id < :id)) " +
+            "ORDER BY o.placementTimestamp DESC, o.id DESC")
+    List<OrderHistoryItemDTO> findHistorySliceAfter(@Param("userId") Long userId, @Param("placementTimestamp") LocalDateTime placementTimestamp,
+                                      @Param("id") long id, Pageable pageable);
 }
@@ -0,0 +1,98 @@
+package com.zerobeta.assignment.ordermanagement.repository;
+
+import com.zerobeta.assignment.ordermanagement.entity.UserOrderCount;
+import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Per-user order counts by status. Writes are native upserts that must run in the transaction of
+ * the order change they account for.
+ *
+ * Every write declares its table as the query space: without it Hibernate treats a native update
+ * as touching every table and evicts all second-level cache regions.
+ */
+public interface UserOrderCountRepository extends JpaRepository<UserOrderCount, UserOrderCount.Key> {
+
+    String TABLE = "user_order_counts";
+
+    @Query("SELECT c FROM UserOrderCount c WHERE c.id.userId = :userId")
+    List<UserOrderCount> findByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT COALESCE(SUM(c.orderCount), 0) FROM UserOrderCount c WHERE c.id.userId = :userId")
+    long sumByUserId(@Param("userId") Long userId);
+
+    /**
+     * Adds count orders in the given status to the user.
+     */
+    default void increment(Long userId, OrderStatus status, long count) {
+        upsert(userId, status.name(), count);
+    }
+
+    /**
+     * Moves count of the user's orders from one status to another with a single statement.
+     */
+    default void transition(Long userId, OrderStatus from, OrderStatus to, long count) {
+        upsertTransition(userId, from.name(), to.name(), count);
+    }
+
+    /**
+     * Moves the given orders, placed at or after since, from one status to another, grouped by user.
+     * The orders must already have been updated and flushed in the current transaction.
+     *
+     * Rows are upserted in (user_id, from before to) order, so concurrent chunks that share users
+     * lock the counters in the same order and cannot deadlock each other.
+     */
+    default void transitionOrders(List<Long> orderIds, LocalDateTime since, OrderStatus from, OrderStatus to) {
+        upsertOrdersTransition(orderIds, since, from.name(), to.name());
+    }
+
+    /**
+     * Adds the given orders, placed at or after since and just inserted and flushed in the current
+     * transaction, to their users' counts.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = TABLE))
+    @Query(value = "INSERT INTO user_order_counts (user_id, status, order_count) " +
+            "SELECT o.user_id, o.status, COUNT(*) FROM orders o " +
+            "WHERE o.id IN (:orderIds) AND o.placement_timestamp >= :since " +
+            "GROUP BY o.user_id, o.status ORDER BY o.user_id " +
+            "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count)", nativeQuery = true)
+    void incrementForOrders(@Param("orderIds") List<Long> orderIds, @Param("since") LocalDateTime since);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = TABLE))
+    @Query(value = "INSERT INTO user_order_counts (user_id, status, order_count) VALUES (:userId, :status, :count) " +
+            "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count)", nativeQuery = true)
+    void upsert(@Param("userId") Long userId, @Param("status") String status, @Param("count") long count);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = TABLE))
+    @Query(value = "INSERT INTO user_order_counts (user_id, status, order_count) " +
+            "VALUES (:userId, :fromStatus, -:count), (:userId, :toStatus, :count) " +
+            "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count)", nativeQuery = true)
+    void upsertTransition(@Param("userId") Long userId, @Param("fromStatus") String fromStatus,
+                          @Param("toStatus") String toStatus, @Param("count") long count);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = TABLE))
+    @Query(value = "INSERT INTO user_order_counts (user_id, status, order_count) " +
+            "SELECT d.user_id, d.status, d.delta FROM (" +
+            "SELECT o.user_id, :fromStatus AS status, -COUNT(*) AS delta, 0 AS step FROM orders o " +
+            "WHERE o.id IN (:orderIds) AND o.placement_timestamp >= :since GROUP BY o.user_id " +
+            "UNION ALL " +
+            "SELECT o.user_id, :toStatus AS status, COUNT(*) AS delta, 1 AS step FROM orders o " +
+            "WHERE o.id IN (:orderIds) AND o.placement_timestamp >= :since GROUP BY o.user_id) d " +
+            "ORDER BY d.user_id, d.step " +
+            "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count)", nativeQuery = true)
+    void upsertOrdersTransition(@Param("orderIds") List<Long> orderIds, @Param("since") LocalDateTime since,
+                                @Param("fromStatus") String fromStatus, @Param("toStatus") String toStatus);
+}
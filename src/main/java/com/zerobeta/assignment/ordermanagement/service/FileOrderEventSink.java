@@ -0,0 +1,62 @@
+package com.zerobeta.assignment.ordermanagement.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerobeta.assignment.ordermanagement.entity.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Default {@link OrderEventSink} that appends events as newline-delimited JSON to a local file,
+ * standing in for a message queue. Each batch is forced to disk before it counts as published.
+ */
+public class FileOrderEventSink implements OrderEventSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileOrderEventSink.class);
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public FileOrderEventSink(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(events.size() * 128);
+        try {
+            for (OutboxEvent event : events) {
+                objectMapper.writeValue(buffer, event);
+                buffer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize order events", e);
+        }
+
+        lock.lock();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write order events to " + file, e);
+        } finally {
+            lock.unlock();
+        }
+        logger.debug("Published {} order events to {}", events.size(), file);
+    }
+}
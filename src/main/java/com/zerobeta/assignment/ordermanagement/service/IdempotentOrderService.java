@@ -0,0 +1,213 @@
+package com.zerobeta.assignment.ordermanagement.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zerobeta.assignment.ordermanagement.dto.OrderRequestDTO;
+import com.zerobeta.assignment.ordermanagement.entity.IdempotencyRecord;
+import com.zerobeta.assignment.ordermanagement.entity.Order;
+import com.zerobeta.assignment.ordermanagement.exception.EntityNotFoundException;
+import com.zerobeta.assignment.ordermanagement.exception.IdempotencyConflictException;
+import com.zerobeta.assignment.ordermanagement.repository.IdempotencyRecordRepository;
+import com.zerobeta.assignment.ordermanagement.store.OrderStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Service class that places orders at most once per Idempotency-Key and user.
+ *
+ * The order and the key are committed in one transaction, so a key is never stored without its
+ * order. Completed keys are served from a bounded in-memory cache in front of the
+ * idempotency_keys table; concurrent requests with the same key on this instance wait for the
+ * first one instead of racing it, and a race between instances is settled by the table's
+ * primary key. Keys are kept for at least {@code idempotency.key.ttl.hours}.
+ */
+@Service
+public class IdempotentOrderService {
+
+    /**
+     * The outcome of an idempotent placement.
+     *
+     * @param order    The order created for the key.
+     * @param replayed Whether the order was created by an earlier request with the same key.
+     */
+    public record Result(Order order, boolean replayed) {
+    }
+
+    private record CompletedRequest(String requestHash, String orderReference) {
+    }
+
+    private record InFlightRequest(String requestHash, CompletableFuture<Order> result) {
+    }
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final OrderService orderService;
+    private final OrderStore orderStore;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final UserCache userCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<IdempotencyRecord.Key, CompletedRequest> completed;
+    private final ConcurrentMap<IdempotencyRecord.Key, InFlightRequest> inFlight = new ConcurrentHashMap<>();
+    private final long waitTimeoutMillis;
+
+    public IdempotentOrderService(OrderService orderService,
+                                  OrderStore orderStore,
+                                  IdempotencyRecordRepository idempotencyRecordRepository,
+                                  UserCache userCache,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${idempotency.cache.max.size:10000}") long maxSize,
+                                  @Value("${idempotency.key.ttl.hours:24}") long ttlHours,
+                                  @Value("${idempotency.wait.timeout.ms:10000}") long waitTimeoutMillis) {
+        this.orderService = orderService;
+        this.orderStore = orderStore;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.userCache = userCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofHours(ttlHours))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, "idempotency");
+    }
+
+    /**
+     * Places an order unless one was already placed for the key, in which case that order is returned.
+     *
+     * @param emailId        The email of the user placing the order.
+     * @param userId         The id of the user if already known, otherwise null.
+     * @param idempotencyKey The client-chosen key identifying the request across retries.
+     * @param orderRequest   The order request data transfer object containing order details.
+     * @return The order and whether it was replayed.
+     * @throws IllegalArgumentException     if the key is blank or too long.
+     * @throws IdempotencyConflictException if the key was used with a different request, or the
+     *                                      first request with the key is still running.
+     * @throws EntityNotFoundException      if the user with the given email ID is not found.
+     */
+    public Result placeOrder(String emailId, Long userId, String idempotencyKey, OrderRequestDTO orderRequest) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Invalid Idempotency-Key: must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        Long ownerId = userId != null ? userId : userCache.findByEmail(emailId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found: " + emailId))
+                .id();
+        IdempotencyRecord.Key key = new IdempotencyRecord.Key(ownerId, idempotencyKey);
+        String requestHash = hash(orderRequest);
+
+        CompletedRequest done = completed.getIfPresent(key);
+        if (done != null) {
+            return replay(done, requestHash);
+        }
+
+        InFlightRequest request = new InFlightRequest(requestHash, new CompletableFuture<>());
+        InFlightRequest first = inFlight.putIfAbsent(key, request);
+        if (first != null) {
+            checkSameRequest(first.requestHash(), requestHash);
+            return new Result(await(first.result()), true);
+        }
+
+        try {
+            Result result = placeOnce(emailId, key, requestHash, orderRequest);
+            completed.put(key, new CompletedRequest(requestHash, result.order().getOrderReference()));
+            request.result().complete(result.order());
+            return result;
+        } catch (RuntimeException e) {
+            request.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, request);
+        }
+    }
+
+    /**
+     * Replays the stored order for the key, or places the order and stores the key with it.
+     */
+    private Result placeOnce(String emailId, IdempotencyRecord.Key key, String requestHash, OrderRequestDTO orderRequest) {
+        Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(key);
+        if (existing.isPresent()) {
+            return replay(existing.get(), requestHash);
+        }
+
+        try {
+            Order order = transactionTemplate.execute(status -> {
+                Order placed = orderService.placeOrder(emailId, orderRequest);
+                idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord(key, requestHash, placed.getOrderReference()));
+                return placed;
+            });
+            return new Result(order, false);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance stored the key first; our order was rolled back with our key
+            IdempotencyRecord winner = idempotencyRecordRepository.findById(key).orElseThrow(() -> e);
+            return replay(winner, requestHash);
+        }
+    }
+
+    private Result replay(IdempotencyRecord stored, String requestHash) {
+        CompletedRequest done = new CompletedRequest(stored.getRequestHash(), stored.getOrderReference());
+        completed.put(stored.getId(), done);
+        return replay(done, requestHash);
+    }
+
+    private Result replay(CompletedRequest done, String requestHash) {
+        checkSameRequest(done.requestHash(), requestHash);
+        Order order = orderStore.findByOrderReference(done.orderReference())
+                .orElseThrow(() -> new EntityNotFoundException("Order not found with reference: " + done.orderReference()));
+        return new Result(order, true);
+    }
+
+    private Order await(CompletableFuture<Order> result) {
+        try {
+            return result.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("A request with the same Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a request with the same Idempotency-Key", e);
+        }
+    }
+
+    private static void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new IdempotencyConflictException("Idempotency-Key was already used with a different request");
+        }
+    }
+
+    /**
+     * Fingerprints the request body, so a reused key with a different body is rejected rather than replayed.
+     */
+    static String hash(OrderRequestDTO orderRequest) {
+        String canonical = orderRequest.getItemName() + '\u0000' + orderRequest.getQuantity() + '\u0000'
+                + orderRequest.getShippingAddress();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
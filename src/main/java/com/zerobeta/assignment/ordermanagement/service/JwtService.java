@@ -1,16 +1,27 @@
 package com.zerobeta.assignment.ordermanagement.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -22,12 +33,79 @@ public class JwtService {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtService.class);
 
+    public static final String USER_ID_CLAIM = "uid"; // Claim holding the id of the user the token was issued to.
+
     @Value("${jwt.secret.key}")
     private String secretKey; // The secret key used for signing the JWTs.
 
+    @Value("${jwt.secret.kid:default}") // Key id written to the 'kid' header of issued tokens.
+    private String secretKeyId = "default";
+
+    // Keys that are no longer used for signing but are still accepted, as comma-separated kid=secret pairs.
+    @Value("${jwt.secret.retired.keys:}")
+    private String retiredKeys = "";
+
     @Value("${jwt.expiration.time.ms:600000}") // Default expiration time set to 10 minutes if not provided.
     private long jwtExpirationTime;
 
+    @Value("${jwt.claims.cache.max.size:10000}") // Maximum number of verified tokens kept in memory; 0 disables the cache.
+    private long claimsCacheMaxSize = 10_000;
+
+    // Verified claims keyed by the SHA-256 digest of the token; each entry expires with its token.
+    private Cache<String, Claims> verifiedClaimsCache;
+
+    private Key signingKey; // The key for new tokens, built once at startup.
+    private Map<String, Key> verificationKeys; // All accepted keys by key id, including the signing key.
+    private JwtParser jwtParser; // Immutable and thread safe, so it is shared by all requests.
+
+    private final Timer signTimer;
+    private final Timer verifyTimer;
+
+    public JwtService(MeterRegistry meterRegistry) {
+        this.signTimer = Timer.builder("jwt.sign")
+                .description("Time to build and sign a token")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("jwt.verify")
+                .description("Time to parse and verify a token's signature; cached tokens are not verified again")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Builds the signing key, the key ring, the parser and the verified-claims cache
+     * once the configuration has been injected.
+     */
+    @PostConstruct
+    public void init() {
+        signingKey = toKey(secretKey);
+
+        Map<String, Key> keys = new HashMap<>();
+        for (String entry : retiredKeys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalStateException("Retired JWT keys must be configured as kid=secret pairs");
+            }
+            keys.put(entry.substring(0, separator).trim(), toKey(entry.substring(separator + 1).trim()));
+        }
+        keys.put(secretKeyId, signingKey);
+        verificationKeys = Map.copyOf(keys);
+
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new KeyRingResolver())
+                .build();
+
+        if (claimsCacheMaxSize > 0) {
+            verifiedClaimsCache = Caffeine.newBuilder()
+                    .maximumSize(claimsCacheMaxSize)
+                    .expireAfter(new TokenExpiry())
+                    .build();
+        }
+    }
+
     /**
      * Generates a JWT for the specified email.
      *
@@ -35,7 +113,22 @@ public class JwtService {
      * @return A JWT as a String.
      */
     public String generateToken(String email) {
+        return generateToken(email, null);
+    }
+
+    /**
+     * Generates a JWT for the specified email, embedding the user id so requests
+     * do not need to look the user up to find it.
+     *
+     * @param email The email for which the JWT is generated.
+     * @param userId The id of the user, or null if it is not known.
+     * @return A JWT as a String.
+     */
+    public String generateToken(String email, Long userId) {
         Map<String, Object> claims = new HashMap<>();
+        if (userId != null) {
+            claims.put(USER_ID_CLAIM, userId);
+        }
         logger.info("Generating token for email: {}", email);
         return createToken(claims, email);
     }
@@ -49,13 +142,14 @@ public class JwtService {
      */
     private String createToken(Map<String, Object> claims, String subject) {
         logger.info("Creating JWT token for subject: {}", subject);
-        return Jwts.builder()
+        return signTimer.record(() -> Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, secretKeyId) // Lets verifiers pick the key from the key ring
                 .setClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationTime))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256) // Sign the token using the secret key
-                .compact();
+                .signWith(signingKey, SignatureAlgorithm.HS256) // Sign the token using the secret key
+                .compact());
     }
 
     /**
@@ -77,10 +171,34 @@ public class JwtService {
      * @return The extracted claim.
      */
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = verifyToken(token);
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Verifies the JWT and returns its claims.
+     *
+     * This is the single verification path: a token that was already verified is served from the
+     * cache without another signature check until it expires. Only successfully verified tokens are cached.
+     *
+     * @param token The JWT to verify.
+     * @return The claims contained in the JWT.
+     * @throws JwtException if the token is invalid or expired.
+     */
+    public Claims verifyToken(String token) {
+        if (verifiedClaimsCache == null) {
+            return extractAllClaims(token);
+        }
+
+        String cacheKey = digest(token);
+        Claims claims = verifiedClaimsCache.getIfPresent(cacheKey);
+        if (claims == null) {
+            claims = extractAllClaims(token);
+            verifiedClaimsCache.put(cacheKey, claims);
+        }
+        return claims;
+    }
+
     /**
      * Extracts all claims from the JWT, validating the signature in the process.
      *
@@ -89,14 +207,16 @@ public class JwtService {
      * @throws JwtException if the token is invalid.
      */
     private Claims extractAllClaims(String token) {
+        Timer.Sample sample = Timer.start();
         try {
-            return Jwts.parser()
-                    .setSigningKey(getSigningKey()) // Use the signing key to validate the token
-                    .parseClaimsJws(token) // Parse and validate the JWT
+            return jwtParser
+                    .parseClaimsJws(token) // Parse and validate the JWT with the key selected by its 'kid'
                     .getBody();
         } catch (JwtException e) { // Handle all JWT exceptions
             logger.error("Failed to extract claims from token: {}", e.getMessage());
             throw e;
+        } finally {
+            sample.stop(verifyTimer);
         }
     }
 
@@ -112,8 +232,9 @@ public class JwtService {
      */
     public Boolean validateToken(String token, String username) {
         try {
-            final String extractedEmail = extractEmail(token);
-            boolean isValid = (extractedEmail.equals(username) && !isTokenExpired(token));
+            final Claims claims = verifyToken(token);
+            final String extractedEmail = claims.getSubject();
+            boolean isValid = (extractedEmail.equals(username) && !claims.getExpiration().before(new Date()));
             logger.info("Validating token for user: {}, token valid: {}", extractedEmail, isValid);
             return isValid;
         } catch (JwtException e) {
@@ -150,12 +271,73 @@ public class JwtService {
     }
 
     /**
-     * Retrieves the signing key used for JWT signing.
+     * Converts a configured secret into an HMAC key.
      *
-     * @return The signing key as a Key object.
+     * @param secret The secret as configured.
+     * @return The key as a Key object.
      */
-    private Key getSigningKey() {
-        // Convert the secret key from a string to a Key object
-        return new SecretKeySpec(secretKey.getBytes(), SignatureAlgorithm.HS256.getJcaName());
+    private static Key toKey(String secret) {
+        return new SecretKeySpec(secret.getBytes(), SignatureAlgorithm.HS256.getJcaName());
+    }
+
+    /**
+     * Computes the cache key for a token, so the cache does not hold the raw tokens.
+     *
+     * @param token The JWT.
+     * @return The Base64-encoded SHA-256 digest of the token.
+     */
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Selects the verification key from the key ring by the 'kid' header.
+     * Tokens issued before key ids were introduced carry no 'kid' and are verified with the signing key.
+     */
+    private final class KeyRingResolver extends SigningKeyResolverAdapter {
+
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            String keyId = header.getKeyId();
+            if (keyId == null) {
+                return signingKey;
+            }
+            Key key = verificationKeys.get(keyId);
+            if (key == null) {
+                throw new JwtException("Unknown JWT key id: " + keyId);
+            }
+            return key;
+        }
+    }
+
+    /**
+     * Expires each cache entry at the expiration time of its token.
+     */
+    private static final class TokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
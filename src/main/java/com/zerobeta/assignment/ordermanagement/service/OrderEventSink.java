@@ -0,0 +1,22 @@
+package com.zerobeta.assignment.ordermanagement.service;
+
+import com.zerobeta.assignment.ordermanagement.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination of the order events relayed from the outbox.
+ *
+ * Delivery is at-least-once: a batch may be published again if the relay fails before
+ * marking it as published, so consumers should de-duplicate by event id.
+ * Implementations must only return once the batch is durably handed over, and throw otherwise.
+ */
+public interface OrderEventSink {
+
+    /**
+     * Publishes a batch of events, in id order.
+     *
+     * @param events The events to publish.
+     */
+    void publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,143 @@
+package com.zerobeta.assignment.ordermanagement.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.zerobeta.assignment.ordermanagement.dto.OrderHistoryItemDTO;
+import com.zerobeta.assignment.ordermanagement.enums.ExportFormat;
+import com.zerobeta.assignment.ordermanagement.exception.EntityNotFoundException;
+import com.zerobeta.assignment.ordermanagement.store.OrderStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service class that streams a user's orders to an output stream as NDJSON or CSV.
+ * Rows are read through a forward-only cursor and written as they arrive, so memory use
+ * does not depend on the number of exported orders.
+ */
+@Service
+public class OrderExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExportService.class);
+
+    private static final String CSV_HEADER = "id,orderReference,itemName,quantity,shippingAddress,status,placementTimestamp";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OrderStore orderStore;
+    private final UserCache userCache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter rowWriter;
+    private final ObjectMapper objectMapper;
+
+    public OrderExportService(OrderStore orderStore, UserCache userCache,
+                              PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.orderStore = orderStore;
+        this.userCache = userCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        // Flushing is left to the buffered writer rather than done after every row
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes the user's orders placed in [from, to) to the output stream, oldest first.
+     *
+     * @param emailId The email ID of the user whose orders are exported.
+     * @param userId  The id of the user, if known from the token; otherwise it is resolved from the email ID.
+     * @param from    The inclusive lower bound of the placement timestamp.
+     * @param to      The exclusive upper bound of the placement timestamp.
+     * @param format  The output format.
+     * @param out     The stream to write to; it is flushed but not closed.
+     * @return The number of exported orders.
+     * @throws EntityNotFoundException if the user id is not given and no user has the given email ID.
+     */
+    public long exportOrders(String emailId, Long userId, LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream out) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Invalid export range: from must be before to");
+        }
+        Long ownerId = userId != null ? userId : userCache.findByEmail(emailId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found: " + emailId))
+                .id();
+
+        Long exported = readOnlyTransaction.execute(status -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            try (Stream<OrderHistoryItemDTO> rows = orderStore.streamForExport(ownerId, from, to)) {
+                long count = format == ExportFormat.CSV ? writeCsv(rows.iterator(), writer) : writeNdjson(rows.iterator(), writer);
+                writer.flush();
+                return count;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write order export", e);
+            }
+        });
+
+        logger.info("Exported {} orders for Email: {} as {}", exported, emailId, format);
+        return exported;
+    }
+
+    private long writeNdjson(Iterator<OrderHistoryItemDTO> rows, Writer writer) throws IOException {
+        long count = 0;
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.setRootValueSeparator(null); // Rows are separated by newlines instead
+        while (rows.hasNext()) {
+            rowWriter.writeValue(generator, rows.next());
+            generator.writeRaw('\n');
+            count++;
+        }
+        generator.flush();
+        return count;
+    }
+
+    private long writeCsv(Iterator<OrderHistoryItemDTO> rows, Writer writer) throws IOException {
+        long count = 0;
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            OrderHistoryItemDTO row = rows.next();
+            writer.write(String.valueOf(row.id()));
+            writer.write(',');
+            writeCsvField(writer, row.orderReference());
+            writer.write(',');
+            writeCsvField(writer, row.itemName());
+            writer.write(',');
+            writer.write(Integer.toString(row.quantity()));
+            writer.write(',');
+            writeCsvField(writer, row.shippingAddress());
+            writer.write(',');
+            writer.write(row.status().name());
+            writer.write(',');
+            writer.write(row.placementTimestamp().toString());
+            writer.write('\n');
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Writes a field, quoting it as per RFC 4180 if it contains a separator, a quote or a line break.
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,359 @@
+package com.zerobeta.assignment.ordermanagement.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zerobeta.assignment.ordermanagement.config.RecentWriters;
+import com.zerobeta.assignment.ordermanagement.dto.OrderIngestionStatusDTO;
+import com.zerobeta.assignment.ordermanagement.dto.OrderRequestDTO;
+import com.zerobeta.assignment.ordermanagement.entity.Order;
+import com.zerobeta.assignment.ordermanagement.enums.IngestionState;
+import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+import com.zerobeta.assignment.ordermanagement.exception.EntityNotFoundException;
+import com.zerobeta.assignment.ordermanagement.exception.FeatureDisabledException;
+import com.zerobeta.assignment.ordermanagement.exception.ServiceOverloadedException;
+import com.zerobeta.assignment.ordermanagement.repository.UserRepository;
+import com.zerobeta.assignment.ordermanagement.store.OrderStore;
+import com.zerobeta.assignment.ordermanagement.util.MpscRingBuffer;
+import com.zerobeta.assignment.ordermanagement.util.OrderReferenceGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Service class for write-behind order placement.
+ *
+ * Accepted orders get their reference immediately and are queued on a bounded lock-free ring
+ * buffer. A single writer thread drains the buffer and writes each batch in one transaction with
+ * JDBC batch inserts (a multi-row INSERT on MySQL with rewriteBatchedStatements), so many orders
+ * share one commit. When the buffer is full, orders are rejected with a
+ * {@link ServiceOverloadedException} instead of queuing without bound. An order is durable only
+ * once its batch has committed; {@link #getStatus} reports which it is.
+ *
+ * The mode is off unless {@code order.ingestion.enabled=true}. Orders still queued when the
+ * process is killed are lost, which is the trade-off for not committing per request.
+ */
+@Service
+public class OrderIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIngestionService.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+    private static final long MIN_RETRY_BACKOFF_MILLIS = 100;
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 5_000;
+
+    /**
+     * An accepted order waiting to be written.
+     */
+    record PendingOrder(String orderReference, Long userId, String itemName, int quantity, String shippingAddress,
+                        LocalDateTime placementTimestamp) {
+    }
+
+    private final OrderStore orderStore;
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final RecentWriters recentWriters;
+    private final OrderReferenceGenerator orderReferenceGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long retryAfterSeconds;
+
+    private final MpscRingBuffer<PendingOrder> buffer;
+    // References of queued orders and the users they belong to, until their batch commits
+    private final Map<String, Long> queued = new ConcurrentHashMap<>();
+    private final Cache<String, Long> failed;
+
+    private final Counter acceptedOrders;
+    private final Counter rejectedOrders;
+    private final Counter failedOrders;
+    private final DistributionSummary commitSizes;
+
+    // Orders whose write failed with a transient error, retried before anything else is drained.
+    // Only accessed by the writer thread.
+    private List<PendingOrder> retrying = List.of();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public OrderIngestionService(OrderStore orderStore,
+                                 UserRepository userRepository,
+                                 UserCache userCache,
+                                 RecentWriters recentWriters,
+                                 OrderReferenceGenerator orderReferenceGenerator,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${order.ingestion.enabled:false}") boolean enabled,
+                                 @Value("${order.ingestion.buffer.capacity:65536}") int capacity,
+                                 @Value("${order.ingestion.batch.size:500}") int batchSize,
+                                 @Value("${order.ingestion.retry.after.seconds:1}") long retryAfterSeconds) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Order ingestion batch size must be > 0");
+        }
+        this.orderStore = orderStore;
+        this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.recentWriters = recentWriters;
+        this.orderReferenceGenerator = orderReferenceGenerator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.buffer = new MpscRingBuffer<>(capacity);
+        this.failed = Caffeine.newBuilder()
+                .maximumSize(capacity)
+                .expireAfterWrite(Duration.ofHours(1))
+                .build();
+
+        this.acceptedOrders = Counter.builder("orders.ingestion.accepted").register(meterRegistry);
+        this.rejectedOrders = Counter.builder("orders.ingestion.rejected")
+                .description("Orders rejected because the ingestion buffer was full")
+                .register(meterRegistry);
+        this.failedOrders = Counter.builder("orders.ingestion.failed").register(meterRegistry);
+        this.commitSizes = DistributionSummary.builder("orders.ingestion.commit.size")
+                .description("Orders written per group commit")
+                .register(meterRegistry);
+        Gauge.builder("orders.ingestion.queue.depth", buffer, MpscRingBuffer::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "order-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Write-behind order ingestion started with buffer capacity {} and batch size {}.",
+                buffer.capacity(), batchSize);
+    }
+
+    /**
+     * Stops the writer once it has written what is still queued. The web server has already
+     * stopped taking requests by the time beans are destroyed.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(SHUTDOWN_TIMEOUT_MILLIS);
+        if (!queued.isEmpty()) {
+            logger.warn("Order writer stopped with {} orders still queued.", queued.size());
+        }
+    }
+
+    /**
+     * Validates the order's owner and queues the order for writing.
+     *
+     * @param emailId      The email of the user placing the order.
+     * @param userId       The id of the user if already known, otherwise null.
+     * @param orderRequest The order request data transfer object containing order details.
+     * @return The reference of the accepted order.
+     * @throws FeatureDisabledException   if write-behind ingestion is disabled.
+     * @throws ServiceOverloadedException  if the buffer is full.
+     * @throws EntityNotFoundException     if the user with the given email ID is not found.
+     */
+    public String accept(String emailId, Long userId, OrderRequestDTO orderRequest) {
+        if (!enabled) {
+            throw new FeatureDisabledException("Write-behind order ingestion is disabled");
+        }
+        Long ownerId = resolveUserId(emailId, userId);
+
+        String orderReference = orderReferenceGenerator.nextReference();
+        PendingOrder order = new PendingOrder(orderReference, ownerId, orderRequest.getItemName(),
+                orderRequest.getQuantity(), orderRequest.getShippingAddress(),
+                OrderReferenceGenerator.placementTimestampOf(orderReference));
+
+        queued.put(orderReference, ownerId);
+        if (!buffer.offer(order)) {
+            queued.remove(orderReference);
+            rejectedOrders.increment();
+            throw new ServiceOverloadedException("Order ingestion queue is full. Please retry later.", retryAfterSeconds);
+        }
+        acceptedOrders.increment();
+        return orderReference;
+    }
+
+    /**
+     * Reports whether an accepted order has been written.
+     *
+     * @param emailId        The email of the user who placed the order.
+     * @param userId         The id of the user if already known, otherwise null.
+     * @param orderReference The reference returned by {@link #accept}.
+     * @return The ingestion state of the order.
+     * @throws EntityNotFoundException if the user has no such order, queued or written.
+     */
+    public OrderIngestionStatusDTO getStatus(String emailId, Long userId, String orderReference) {
+        Long ownerId = resolveUserId(emailId, userId);
+
+        // Checked before the database: an order leaves the queue only after its batch has committed
+        if (ownerId.equals(queued.get(orderReference))) {
+            return new OrderIngestionStatusDTO(orderReference, IngestionState.QUEUED, null);
+        }
+        if (ownerId.equals(failed.getIfPresent(orderReference))) {
+            return new OrderIngestionStatusDTO(orderReference, IngestionState.FAILED, null);
+        }
+        OrderStatus status = orderStore.findStatusForUser(orderReference, ownerId)
+                .orElseThrow(() -> new EntityNotFoundException("Order not found with reference: " + orderReference));
+        return new OrderIngestionStatusDTO(orderReference, IngestionState.DURABLE, status);
+    }
+
+    private void runWriter() {
+        long retryBackoffMillis = MIN_RETRY_BACKOFF_MILLIS;
+        while (running || buffer.size() > 0 || !retrying.isEmpty()) {
+            try {
+                if (flush() == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Order writer failed to write a batch.", e);
+            }
+            if (retrying.isEmpty()) {
+                retryBackoffMillis = MIN_RETRY_BACKOFF_MILLIS;
+            } else {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(retryBackoffMillis));
+                retryBackoffMillis = Math.min(retryBackoffMillis * 2, MAX_RETRY_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Writes the orders left over by a transient failure, or else drains up to one batch from the
+     * buffer, and writes them. Called by the writer thread.
+     *
+     * If the group commit fails because the database is unavailable, the orders stay queued and are
+     * retried as a whole. Only other failures, such as a constraint violation, are isolated by
+     * writing the orders one by one and failing those that cannot be written.
+     *
+     * @return The number of orders taken for writing.
+     */
+    int flush() {
+        List<PendingOrder> batch = retrying;
+        retrying = List.of();
+        if (batch.isEmpty()) {
+            batch = new ArrayList<>(Math.min(batchSize, buffer.capacity()));
+            buffer.drain(batch::add, batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+        }
+
+        try {
+            List<PendingOrder> orders = batch;
+            transactionTemplate.executeWithoutResult(status -> insert(orders));
+            commitSizes.record(batch.size());
+            batch.forEach(this::committed);
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                retryLater(batch, e);
+                return batch.size();
+            }
+            // Isolate the orders that cannot be written instead of failing the whole batch
+            logger.warn("Group commit of {} orders failed, writing them one by one.", batch.size(), e);
+            for (int i = 0; i < batch.size(); i++) {
+                if (!writeSingle(batch.get(i))) {
+                    retryLater(batch.subList(i, batch.size()), null);
+                    break;
+                }
+            }
+        }
+        return batch.size();
+    }
+
+    /**
+     * Writes one order, failing it if it cannot be written.
+     *
+     * @return false if the write failed with a transient error and the order is still queued.
+     */
+    private boolean writeSingle(PendingOrder order) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(List.of(order)));
+            commitSizes.record(1);
+            committed(order);
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                return false;
+            }
+            logger.error("Failed to write order {}.", order.orderReference(), e);
+            failed.put(order.orderReference(), order.userId());
+            failedOrders.increment();
+            queued.remove(order.orderReference());
+        }
+        return true;
+    }
+
+    private void retryLater(List<PendingOrder> orders, RuntimeException e) {
+        retrying = new ArrayList<>(orders);
+        logger.warn("Writing {} orders failed with a transient error; they stay queued and are retried.", orders.size(), e);
+    }
+
+    /**
+     * Failures that say nothing about the orders themselves, such as an unreachable database or an
+     * exhausted connection pool, so the same orders can be written once it recovers.
+     */
+    static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    /**
+     * Keeps the user's reads on the primary before the order leaves the queue, so its status never
+     * reads from a replica that has not caught up with the commit.
+     */
+    private void committed(PendingOrder order) {
+        recentWriters.recordWrite(order.userId());
+        queued.remove(order.orderReference());
+    }
+
+    private void insert(List<PendingOrder> batch) {
+        List<Order> orders = new ArrayList<>(batch.size());
+        for (PendingOrder pending : batch) {
+            Order order = new Order();
+            order.setUser(userRepository.getReferenceById(pending.userId()));
+            order.setItemName(pending.itemName());
+            order.setQuantity(pending.quantity());
+            order.setShippingAddress(pending.shippingAddress());
+            order.setStatus(OrderStatus.NEW);
+            order.setPlacementTimestamp(pending.placementTimestamp());
+            order.setOrderReference(pending.orderReference());
+            orders.add(order);
+        }
+        orderStore.insert(orders);
+    }
+
+    private Long resolveUserId(String emailId, Long userId) {
+        if (userId != null) {
+            return userId;
+        }
+        return userCache.findByEmail(emailId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found: " + emailId))
+                .id();
+    }
+}
@@ -0,0 +1,100 @@
+package com.zerobeta.assignment.ordermanagement.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the order hot paths: latency of the order service operations and dispatch runs,
+ * with percentile histograms so latency regressions show up per bucket, and counters for
+ * dispatched orders and for state changes that lose a race against another writer.
+ */
+@Component
+public class OrderMetrics {
+
+    private final Timer placeOrderTimer;
+    private final Timer cancelOrderTimer;
+    private final Timer orderHistoryTimer;
+    private final Timer dispatchRunTimer;
+    private final Counter dispatchedOrders;
+    private final Counter cancelConflicts;
+    private final Counter dispatchConflicts;
+
+    public OrderMetrics(MeterRegistry registry) {
+        this.placeOrderTimer = operationTimer("place", registry);
+        this.cancelOrderTimer = operationTimer("cancel", registry);
+        this.orderHistoryTimer = operationTimer("history", registry);
+        this.dispatchRunTimer = Timer.builder("orders.dispatch.duration")
+                .description("Duration of a dispatch job run")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.dispatchedOrders = Counter.builder("orders.dispatch.rows")
+                .description("Orders moved from NEW to DISPATCHED")
+                .register(registry);
+        this.cancelConflicts = Counter.builder("orders.cancel.conflicts")
+                .description("Cancellations rejected because the order was no longer NEW")
+                .register(registry);
+        this.dispatchConflicts = Counter.builder("orders.dispatch.conflicts")
+                .description("Dispatch chunks rolled back because locked orders changed before the update")
+                .register(registry);
+    }
+
+    private static Timer operationTimer(String operation, MeterRegistry registry) {
+        return Timer.builder("orders.service")
+                .description("Latency of OrderService operations, including the commit")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public Timer.Sample startTimer() {
+        return Timer.start();
+    }
+
+    public void recordPlaceOrder(Timer.Sample sample) {
+        stopAfterCompletion(sample, placeOrderTimer);
+    }
+
+    public void recordCancelOrder(Timer.Sample sample) {
+        stopAfterCompletion(sample, cancelOrderTimer);
+    }
+
+    public void recordOrderHistory(Timer.Sample sample) {
+        stopAfterCompletion(sample, orderHistoryTimer);
+    }
+
+    public void recordDispatchRun(long elapsedNanos, long dispatched) {
+        dispatchRunTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        dispatchedOrders.increment(dispatched);
+    }
+
+    public void cancelConflict() {
+        cancelConflicts.increment();
+    }
+
+    public void dispatchConflict() {
+        dispatchConflicts.increment();
+    }
+
+    /**
+     * Stops the sample when the current transaction completes, so the commit is part of the
+     * measured time, or right away when there is no transaction.
+     */
+    private static void stopAfterCompletion(Timer.Sample sample, Timer timer) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            sample.stop(timer);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                sample.stop(timer);
+            }
+        });
+    }
+}
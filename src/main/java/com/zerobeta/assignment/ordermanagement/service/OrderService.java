@@ -1,23 +1,35 @@
 package com.zerobeta.assignment.ordermanagement.service;
 
+import com.zerobeta.assignment.ordermanagement.dto.CursorPageDTO;
+import com.zerobeta.assignment.ordermanagement.dto.OrderHistoryItemDTO;
 import com.zerobeta.assignment.ordermanagement.dto.OrderRequestDTO;
+import com.zerobeta.assignment.ordermanagement.dto.OrderSummaryDTO;
 import com.zerobeta.assignment.ordermanagement.entity.User;
 import com.zerobeta.assignment.ordermanagement.entity.Order;
+import com.zerobeta.assignment.ordermanagement.entity.OutboxEvent;
+import com.zerobeta.assignment.ordermanagement.enums.OrderEventType;
 import com.zerobeta.assignment.ordermanagement.exception.EntityNotFoundException;
-import com.zerobeta.assignment.ordermanagement.repository.OrderRepository;
+import com.zerobeta.assignment.ordermanagement.repository.OutboxEventRepository;
 import com.zerobeta.assignment.ordermanagement.repository.UserRepository;
 import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+import com.zerobeta.assignment.ordermanagement.store.OrderStore;
+import com.zerobeta.assignment.ordermanagement.util.OrderHistoryCursor;
+import com.zerobeta.assignment.ordermanagement.util.OrderReferenceGenerator;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
 
 /**
  * Service class that manages order-related operations.
@@ -27,11 +39,23 @@ import java.util.Random;
 public class OrderService {
 
     @Autowired
-    private OrderRepository orderRepository;
+    private OrderStore orderStore;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private OrderReferenceGenerator orderReferenceGenerator;
+
+    @Autowired
+    private OrderMetrics orderMetrics;
+
     /**
      * Places a new order for a user.
      *
@@ -40,26 +64,75 @@ public class OrderService {
      * @return The created Order object with generated fields.
      * @throws EntityNotFoundException if the user with the given email ID is not found.
      */
+    @Transactional
     public Order placeOrder(String emailId, OrderRequestDTO orderRequest) {
-        User user = userRepository.findByEmail(emailId)
+        Timer.Sample sample = orderMetrics.startTimer();
+        try {
+            User user = findUserReference(emailId);
+
+            Order order = buildOrder(user, orderRequest);
+            orderStore.insert(List.of(order));
+            return order;
+        } finally {
+            orderMetrics.recordPlaceOrder(sample);
+        }
+    }
+
+    /**
+     * Places several orders for a user in one transaction.
+     * The user is looked up once and the orders are written with JDBC batch inserts.
+     *
+     * @param emailId       The email of the user placing the orders.
+     * @param orderRequests The order request data transfer objects, already validated.
+     * @return The created Order objects, in the order of the requests.
+     * @throws EntityNotFoundException if the user with the given email ID is not found.
+     */
+    @Transactional
+    public List<Order> placeOrders(String emailId, List<OrderRequestDTO> orderRequests) {
+        User user = findUserReference(emailId);
+
+        List<Order> orders = new ArrayList<>(orderRequests.size());
+        for (OrderRequestDTO orderRequest : orderRequests) {
+            orders.add(buildOrder(user, orderRequest));
+        }
+        orderStore.insert(orders);
+        return orders;
+    }
+
+    /**
+     * Resolves the user through the user cache and returns a reference to it,
+     * so attaching the user to an order does not read the users table.
+     *
+     * @param emailId The email of the user.
+     * @return An uninitialized reference to the user.
+     * @throws EntityNotFoundException if the user with the given email ID is not found.
+     */
+    private User findUserReference(String emailId) {
+        UserCache.CachedUser cachedUser = userCache.findByEmail(emailId)
                 .orElseThrow(() -> new EntityNotFoundException("User not found: " + emailId));
+        return userRepository.getReferenceById(cachedUser.id());
+    }
 
+    /**
+     * Creates a new order entity for the user from the request.
+     *
+     * @param user         The user placing the order.
+     * @param orderRequest The order request data transfer object containing order details.
+     * @return The Order object with generated fields, not yet persisted.
+     */
+    private Order buildOrder(User user, OrderRequestDTO orderRequest) {
         Order order = new Order();
         // Copy properties from OrderRequest to Order
         BeanUtils.copyProperties(orderRequest, order, "user", "placementTimestamp", "status", "orderReference");
 
         order.setUser(user);
-        order.setPlacementTimestamp(LocalDateTime.now());
         order.setStatus(OrderStatus.NEW);
 
-        // Generate a custom order reference: ORD + timestamp + random 4 digits
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
-        String timestamp = LocalDateTime.now().format(formatter);
-        int randomNumber = new Random().nextInt(9999);
-        String orderReference = "ORD" + timestamp + String.format("%04d", randomNumber);
+        // Unique, time-sortable reference: ORD + base-36 encoded timestamp, node id and sequence.
+        // The order is placed at the time encoded in it, so a duplicate violates idx_order_reference.
+        String orderReference = orderReferenceGenerator.nextReference();
         order.setOrderReference(orderReference);
-
-        orderRepository.save(order);
+        order.setPlacementTimestamp(OrderReferenceGenerator.placementTimestampOf(orderReference));
         return order;
     }
 
@@ -70,21 +143,55 @@ public class OrderService {
      * @param orderReference The reference of the order to be canceled.
      * @throws EntityNotFoundException if the order does not exist or does not belong to the user.
      */
+    @Transactional
     public void cancelOrder(String emailId, String orderReference) {
-        Optional<Order> orderOptional = orderRepository.findByOrderReference(orderReference);
-
-        if (orderOptional.isPresent()) {
-            Order order = orderOptional.get();
-            // Check if the order belongs to the user and is in the NEW status
-            if (order.getUser().getEmail().equals(emailId) && order.getStatus() == OrderStatus.NEW) {
-                order.setStatus(OrderStatus.CANCELLED);
-                orderRepository.save(order);
-            } else {
-                throw new EntityNotFoundException("Cannot cancel order. Order status is not NEW or does not belong to the user: " + emailId);
-            }
-        } else {
+        cancelOrder(emailId, null, orderReference);
+    }
+
+    /**
+     * Cancels an existing order for a user with a single conditional UPDATE, so the ownership
+     * and status checks cannot race with the dispatch job. The order is only read back to
+     * explain why the update matched no row.
+     *
+     * @param emailId        The email of the user who wants to cancel the order.
+     * @param userId         The id of the user if already known, otherwise null.
+     * @param orderReference The reference of the order to be canceled.
+     * @throws EntityNotFoundException if the order does not exist or does not belong to the user.
+     */
+    @Transactional
+    public void cancelOrder(String emailId, Long userId, String orderReference) {
+        Timer.Sample sample = orderMetrics.startTimer();
+        try {
+            cancelIfNew(emailId, resolveUserId(emailId, userId), orderReference);
+        } finally {
+            orderMetrics.recordCancelOrder(sample);
+        }
+    }
+
+    /**
+     * Moves the user's order from NEW to CANCELLED and records the outbox event of the change.
+     *
+     * @param emailId        The email of the user, used in the error message.
+     * @param ownerId        The id of the user who must own the order.
+     * @param orderReference The reference of the order to be canceled.
+     * @throws EntityNotFoundException if the order does not exist, belongs to another user or is no longer NEW.
+     */
+    private void cancelIfNew(String emailId, Long ownerId, String orderReference) {
+        int updated = orderStore.updateOrderStatusForUser(orderReference, ownerId, OrderStatus.NEW, OrderStatus.CANCELLED);
+        if (updated == 1) {
+            // Recorded in the same transaction as the status change
+            outboxEventRepository.save(new OutboxEvent(orderReference, OrderEventType.ORDER_CANCELLED));
+            return;
+        }
+
+        Optional<OrderStatus> currentStatus = orderStore.findStatusForUser(orderReference, ownerId);
+        if (currentStatus.isPresent()) {
+            // The user's order exists but has already left NEW, possibly dispatched moments ago
+            orderMetrics.cancelConflict();
+        } else if (!orderStore.existsByOrderReference(orderReference)) {
             throw new EntityNotFoundException("Order not found with reference: " + orderReference);
         }
+        throw new EntityNotFoundException("Cannot cancel order. Order status is not NEW or does not belong to the user: " + emailId);
     }
 
     /**
@@ -93,15 +200,114 @@ public class OrderService {
      * @param emailId The email of the user whose order history is to be retrieved.
      * @param pageNo  The page number to retrieve.
      * @param pageSize The number of orders per page.
-     * @return A Page object containing the user's orders.
+     * @return A Page object containing the user's orders, newest first.
+     */
+    @Transactional(readOnly = true)
+    public Page<OrderHistoryItemDTO> getOrderHistory(String emailId, int pageNo, int pageSize) {
+        return getOrderHistory(emailId, null, pageNo, pageSize);
+    }
+
+    /**
+     * Retrieves the order history for a user with pagination. The total comes from the user's
+     * order counts instead of a COUNT query over the orders.
+     *
+     * @param emailId The email of the user whose order history is to be retrieved.
+     * @param userId  The id of the user if already known, otherwise null.
+     * @param pageNo  The page number to retrieve.
+     * @param pageSize The number of orders per page.
+     * @return A Page object containing the user's orders, newest first.
+     * @throws EntityNotFoundException if the user id is not given and no user has the given email ID.
      */
-    public Page<Order> getOrderHistory(String emailId, int pageNo, int pageSize) {
+    @Transactional(readOnly = true)
+    public Page<OrderHistoryItemDTO> getOrderHistory(String emailId, Long userId, int pageNo, int pageSize) {
         if (pageNo < 0 || pageSize <= 0) {
             throw new IllegalArgumentException("Invalid pagination parameters: pageNo must be >= 0 and pageSize must be > 0");
         }
 
-        Pageable pageable = PageRequest.of(pageNo, pageSize);
-        return orderRepository.findByUserEmail(emailId, pageable);
+        Timer.Sample sample = orderMetrics.startTimer();
+        try {
+            Long ownerId = resolveUserId(emailId, userId);
+            Pageable pageable = PageRequest.of(pageNo, pageSize);
+            // Projection query: only the needed columns are read and nothing enters the persistence context
+            List<OrderHistoryItemDTO> orders = orderStore.findHistoryPage(ownerId, pageable);
+            return new PageImpl<>(orders, pageable, orderStore.countForUser(ownerId));
+        } finally {
+            orderMetrics.recordOrderHistory(sample);
+        }
+    }
+
+    /**
+     * Retrieves the number of orders a user has in each status.
+     *
+     * @param emailId The email of the user.
+     * @param userId  The id of the user if already known, otherwise null.
+     * @return The counts per status and their total.
+     * @throws EntityNotFoundException if the user id is not given and no user has the given email ID.
+     */
+    @Transactional(readOnly = true)
+    public OrderSummaryDTO getOrderSummary(String emailId, Long userId) {
+        Long ownerId = resolveUserId(emailId, userId);
+
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            counts.put(status, 0L);
+        }
+        counts.putAll(orderStore.countByStatusForUser(ownerId));
+        long total = 0;
+        for (long count : counts.values()) {
+            total += count;
+        }
+        return new OrderSummaryDTO(counts, total);
+    }
+
+    /**
+     * Retrieves a slice of the order history for a user with keyset pagination, newest first.
+     * Unlike {@link #getOrderHistory}, deep slices cost the same as the first one and no count query is run.
+     *
+     * @param emailId  The email of the user whose order history is to be retrieved.
+     * @param userId   The id of the user if already known, otherwise null.
+     * @param cursor   The cursor returned with the previous slice, or null for the first slice.
+     * @param pageSize The number of orders per slice.
+     * @return A CursorPageDTO containing the user's orders and the cursor of the next slice.
+     * @throws EntityNotFoundException if the user id is not given and no user has the given email ID.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OrderHistoryItemDTO> getOrderHistoryByCursor(String emailId, Long userId, String cursor, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Invalid pagination parameters: pageSize must be > 0");
+        }
+        userId = resolveUserId(emailId, userId);
+
+        // Fetch one extra row to know whether there is a next slice
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<OrderHistoryItemDTO> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderStore.findHistoryFirstSlice(userId, limit);
+        } else {
+            OrderHistoryCursor position = OrderHistoryCursor.decode(cursor);
+            orders = orderStore.findHistorySliceAfter(userId, position.placementTimestamp(), position.id(), limit);
+        }
+
+        boolean hasNext = orders.size() > pageSize;
+        List<OrderHistoryItemDTO> content = hasNext ? orders.subList(0, pageSize) : orders;
+        String nextCursor = null;
+        if (hasNext) {
+            OrderHistoryItemDTO last = content.get(content.size() - 1);
+            nextCursor = new OrderHistoryCursor(last.placementTimestamp(), last.id()).encode();
+        }
+        return new CursorPageDTO<>(content, content.size(), nextCursor, hasNext);
+    }
+
+    /**
+     * Returns the given user id, or looks it up by email for tokens issued without one.
+     */
+    private Long resolveUserId(String emailId, Long userId) {
+        if (userId != null) {
+            return userId;
+        }
+        return userCache.findByEmail(emailId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found: " + emailId))
+                .id();
     }
 
 }
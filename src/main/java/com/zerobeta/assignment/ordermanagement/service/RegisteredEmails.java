@@ -0,0 +1,105 @@
+package com.zerobeta.assignment.ordermanagement.service;
+
+import com.zerobeta.assignment.ordermanagement.repository.UserRepository;
+import com.zerobeta.assignment.ordermanagement.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter of registered emails, used to skip the existence check for emails that
+ * have certainly never been registered.
+ *
+ * The filter is built at startup by streaming the users table and updated on every signup on this
+ * node; until it is built every email "might exist". Emails registered on other nodes after startup
+ * are missing, so a duplicate signup for one of them skips the check and is rejected by the unique
+ * constraint instead, which remains the source of truth. Emails are lower-cased because MySQL
+ * compares them case-insensitively.
+ */
+@Component
+public class RegisteredEmails {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegisteredEmails.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Counter negatives;
+    private final Counter positives;
+
+    private volatile BloomFilter filter;
+    private volatile boolean loaded;
+
+    public RegisteredEmails(UserRepository userRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${user.email.filter.expected.insertions:1000000}") long expectedInsertions,
+                            @Value("${user.email.filter.false.positive.rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.negatives = Counter.builder("users.email.filter.lookups").tag("result", "absent").register(meterRegistry);
+        this.positives = Counter.builder("users.email.filter.lookups").tag("result", "might_exist").register(meterRegistry);
+    }
+
+    /**
+     * Builds the filter from the users table. Signups that complete while it is being built are
+     * added to the same filter, so none are missed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long startTime = System.currentTimeMillis();
+        long userCount = userRepository.count();
+        BloomFilter building = new BloomFilter(Math.max(expectedInsertions, userCount * 2), falsePositiveRate);
+        filter = building;
+        long[] added = {0};
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<String> emails = userRepository.streamAllEmails()) {
+                emails.forEach(email -> {
+                    building.add(normalize(email));
+                    added[0]++;
+                });
+            }
+        });
+        loaded = true;
+        logger.info("Loaded {} registered emails into the signup filter ({} bits, {} hashes) in {} ms.",
+                added[0], building.bitCount(), building.hashCount(), System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * @param email The email to check.
+     * @return false only if the email has certainly not been registered.
+     */
+    public boolean mightExist(String email) {
+        boolean mightExist = !loaded || filter.mightContain(normalize(email));
+        (mightExist ? positives : negatives).increment();
+        return mightExist;
+    }
+
+    /**
+     * Records a newly registered email.
+     *
+     * @param email The email of the new user.
+     */
+    public void add(String email) {
+        filter.add(normalize(email));
+    }
+
+    private static String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,84 @@
+package com.zerobeta.assignment.ordermanagement.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zerobeta.assignment.ordermanagement.entity.User;
+import com.zerobeta.assignment.ordermanagement.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded in-memory cache of users by email, holding only the id and the password hash.
+ * It saves the user lookup on every order placement and sign-in.
+ *
+ * Entries expire after {@code user.cache.ttl.seconds}; callers that change a user must call
+ * {@link #invalidate(String)}. Unknown emails are not cached. Hit, miss and eviction counts are
+ * published as the "users" cache metrics.
+ *
+ * Misses are loaded outside the cache rather than through a loading function: Caffeine runs loaders
+ * inside a ConcurrentHashMap bin lock, which would pin a virtual thread for the whole query.
+ */
+@Component
+public class UserCache {
+
+    /**
+     * The cached part of a user.
+     *
+     * @param id           The id of the user.
+     * @param email        The email of the user.
+     * @param passwordHash The encoded password of the user.
+     */
+    public record CachedUser(Long id, String email, String passwordHash) {
+    }
+
+    private final UserRepository userRepository;
+    private final Cache<String, CachedUser> cache;
+
+    public UserCache(UserRepository userRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${user.cache.max.size:10000}") long maxSize,
+                     @Value("${user.cache.ttl.seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    /**
+     * Finds a user by email, loading it from the database on a cache miss.
+     *
+     * @param email The email of the user.
+     * @return The cached user, or empty if no user has the email.
+     */
+    public Optional<CachedUser> findByEmail(String email) {
+        CachedUser cached = cache.getIfPresent(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        // Concurrent misses may both query; the later put simply replaces an identical entry
+        Optional<CachedUser> loaded = userRepository.findByEmail(email).map(UserCache::toCachedUser);
+        loaded.ifPresent(user -> cache.put(email, user)); // Unknown emails are not cached, so a later signup is visible immediately
+        return loaded;
+    }
+
+    /**
+     * Removes a user from the cache, so the next lookup reads it from the database.
+     *
+     * @param email The email of the user.
+     */
+    public void invalidate(String email) {
+        cache.invalidate(email);
+    }
+
+    private static CachedUser toCachedUser(User user) {
+        return new CachedUser(user.getId(), user.getEmail(), user.getPassword());
+    }
+}
@@ -8,6 +8,7 @@ import com.zerobeta.assignment.ordermanagement.exception.EntityNotFoundException
 import com.zerobeta.assignment.ordermanagement.repository.UserRepository;
 
 import org.springframework.beans.BeanUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -34,6 +35,12 @@ public class UserService implements UserDetailsService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private RegisteredEmails registeredEmails;
+
     /**
      * Registers a new user based on the provided sign-up request data.
      *
@@ -41,8 +48,11 @@ public class UserService implements UserDetailsService {
      * @throws UserAlreadyExistsException if a user with the same email already exists.
      */
     public void signup(SignUpRequestDTO clientRequest) {
-        if (userRepository.findByEmail(clientRequest.getEmail()).isPresent()) {
-            throw new UserAlreadyExistsException("Email Already in Use: " + clientRequest.getEmail());
+        String email = clientRequest.getEmail();
+        // Emails the filter has never seen go straight to the insert; likely duplicates are confirmed
+        // through the user cache, so repeated attempts for a registered email do not reach the database
+        if (registeredEmails.mightExist(email) && userCache.findByEmail(email).isPresent()) {
+            throw new UserAlreadyExistsException("Email Already in Use: " + email);
         }
 
         User user = new User();
@@ -51,7 +61,14 @@ public class UserService implements UserDetailsService {
         // Set the password after encoding
         user.setPassword(passwordEncoder.encode(clientRequest.getPassword()));
 
-        userRepository.save(user);
+        try {
+            userRepository.save(user); // Inserts immediately; the id is generated by the database
+        } catch (DataIntegrityViolationException e) {
+            // The email is the only unique column and the other columns are validated, so this is a concurrent signup
+            throw new UserAlreadyExistsException("Email Already in Use: " + email);
+        }
+        registeredEmails.add(email);
+        userCache.invalidate(email);
     }
 
     /**
@@ -63,10 +80,10 @@ public class UserService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Optional<User> user = userRepository.findByEmail(username);
+        Optional<UserCache.CachedUser> user = userCache.findByEmail(username);
 
-        // Convert User entity to UserDetails
-        return user.map(UserInfoDetails::new)
+        // Convert the cached user to UserDetails
+        return user.map(cachedUser -> new UserInfoDetails(cachedUser.id(), cachedUser.email(), cachedUser.passwordHash()))
                 .orElseThrow(() -> new EntityNotFoundException("User Not Found " + username));
     }
 }
@@ -0,0 +1,150 @@
+package com.zerobeta.assignment.ordermanagement.store;
+
+import com.zerobeta.assignment.ordermanagement.dto.DispatchCandidateDTO;
+import com.zerobeta.assignment.ordermanagement.dto.OrderHistoryItemDTO;
+import com.zerobeta.assignment.ordermanagement.entity.Order;
+import com.zerobeta.assignment.ordermanagement.entity.UserOrderCount;
+import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+import com.zerobeta.assignment.ordermanagement.repository.OrderRepository;
+import com.zerobeta.assignment.ordermanagement.repository.UserOrderCountRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Order store backed by the orders and user_order_counts tables. The default engine.
+ *
+ * Count updates are native upserts in the caller's transaction, and the dispatch candidates stay
+ * locked until it ends.
+ */
+@Component
+@Profile("!" + LogStructuredOrderStore.PROFILE)
+public class JpaOrderStore implements OrderStore {
+
+    private final OrderRepository orderRepository;
+    private final UserOrderCountRepository userOrderCountRepository;
+
+    public JpaOrderStore(OrderRepository orderRepository, UserOrderCountRepository userOrderCountRepository) {
+        this.orderRepository = orderRepository;
+        this.userOrderCountRepository = userOrderCountRepository;
+    }
+
+    @Override
+    public void insert(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        orderRepository.saveAll(orders);
+
+        Long userId = orders.get(0).getUser().getId();
+        if (orders.stream().allMatch(order -> userId.equals(order.getUser().getId()))) {
+            userOrderCountRepository.increment(userId, OrderStatus.NEW, orders.size());
+            return;
+        }
+        // Orders of several users are counted from the inserted rows, so they must reach the database first
+        orderRepository.flush();
+        LocalDateTime since = orders.stream().map(Order::getPlacementTimestamp).min(Comparator.naturalOrder()).orElseThrow();
+        userOrderCountRepository.incrementForOrders(orders.stream().map(Order::getId).toList(), since);
+    }
+
+    @Override
+    public Optional<Order> findByOrderReference(String orderReference) {
+        return orderRepository.findByOrderReference(orderReference);
+    }
+
+    @Override
+    public boolean existsByOrderReference(String orderReference) {
+        return orderRepository.existsByOrderReference(orderReference);
+    }
+
+    @Override
+    public int updateOrderStatusForUser(String orderReference, Long userId, OrderStatus currentStatus, OrderStatus status) {
+        int updated = orderRepository.updateOrderStatusForUser(orderReference, userId, currentStatus, status);
+        if (updated == 1) {
+            userOrderCountRepository.transition(userId, currentStatus, status, 1);
+        }
+        return updated;
+    }
+
+    @Override
+    public Optional<OrderStatus> findStatusForUser(String orderReference, Long userId) {
+        return orderRepository.findStatusForUser(orderReference, userId);
+    }
+
+    @Override
+    public int updateOrderStatusByIds(List<Long> ids, LocalDateTime since, OrderStatus currentStatus, OrderStatus status) {
+        int updated = orderRepository.updateOrderStatusByIds(ids, since, currentStatus, status);
+        if (updated == ids.size()) {
+            userOrderCountRepository.transitionOrders(ids, since, currentStatus, status);
+        }
+        return updated;
+    }
+
+    @Override
+    public List<OrderHistoryItemDTO> findHistoryPage(Long userId, Pageable pageable) {
+        return orderRepository.findHistoryPage(userId, pageable);
+    }
+
+    @Override
+    public List<OrderHistoryItemDTO> findHistoryFirstSlice(Long userId, Pageable pageable) {
+        return orderRepository.findHistoryPage(userId, pageable);
+    }
+
+    @Override
+    public List<OrderHistoryItemDTO> findHistorySliceAfter(Long userId, LocalDateTime placementTimestamp, long id, Pageable pageable) {
+        return orderRepository.findHistorySliceAfter(userId, placementTimestamp, id, pageable);
+    }
+
+    @Override
+    public Stream<OrderHistoryItemDTO> streamForExport(Long userId, LocalDateTime from, LocalDateTime to) {
+        return orderRepository.streamForExport(userId, from, to);
+    }
+
+    @Override
+    public Map<OrderStatus, Long> countByStatusForUser(Long userId) {
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        for (UserOrderCount count : userOrderCountRepository.findByUserId(userId)) {
+            counts.put(count.getId().getStatus(), count.getOrderCount());
+        }
+        return counts;
+    }
+
+    @Override
+    public long countForUser(Long userId) {
+        return userOrderCountRepository.sumByUserId(userId);
+    }
+
+    @Override
+    public long countByStatus(OrderStatus status) {
+        return orderRepository.countByStatus(status);
+    }
+
+    @Override
+    public LocalDateTime findOldestPlacementByStatus(OrderStatus status) {
+        return orderRepository.findOldestPlacementByStatus(status);
+    }
+
+    @Override
+    public Long findMinIdByStatus(OrderStatus status, LocalDateTime since) {
+        return orderRepository.findMinIdByStatus(status, since);
+    }
+
+    @Override
+    public Long findMaxIdByStatus(OrderStatus status, LocalDateTime since) {
+        return orderRepository.findMaxIdByStatus(status, since);
+    }
+
+    @Override
+    public List<DispatchCandidateDTO> findDispatchCandidates(OrderStatus status, LocalDateTime since, long afterId, long maxId,
+                                                             Pageable pageable) {
+        return orderRepository.findDispatchCandidates(status, since, afterId, maxId, pageable);
+    }
+}
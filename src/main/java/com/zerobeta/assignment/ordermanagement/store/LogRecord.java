@@ -0,0 +1,166 @@
+package com.zerobeta.assignment.ordermanagement.store;
+
+import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A record of the order log.
+ *
+ * Records carry the resulting state rather than a delta, so replaying a suffix of the log over a newer
+ * snapshot still ends in the latest state. On disk a record is framed as its payload length, the CRC-32
+ * of the payload and the payload, which starts with the record type. Statuses are stored by ordinal,
+ * so new values must be added at the end of {@link OrderStatus}.
+ */
+sealed interface LogRecord {
+
+    int HEADER_BYTES = 2 * Integer.BYTES;
+
+    byte PLACED = 1;
+    byte STATUS_CHANGED = 2;
+    byte SNAPSHOT = 3;
+    byte BATCH = 4;
+
+    /**
+     * An order with its full state, written when it is placed and when the log is compacted.
+     */
+    record Placed(long id, long userId, String orderReference, String itemName, int quantity, String shippingAddress,
+                  OrderStatus status, LocalDateTime placementTimestamp, long version) implements LogRecord {
+    }
+
+    record StatusChanged(long id, OrderStatus status, long version) implements LogRecord {
+    }
+
+    /**
+     * Starts a compacted segment, which holds the full state: everything replayed before it is discarded,
+     * including segments it replaced that were left behind by a crash during compaction. Carries the next
+     * order id, so the ids of orders no longer in the log are not handed out again.
+     */
+    record Snapshot(long nextId) implements LogRecord {
+    }
+
+    /**
+     * The changes of one committed transaction. They share a frame and a CRC, so a crash in the middle
+     * of the append discards all of them.
+     */
+    record Batch(List<LogRecord> records) implements LogRecord {
+    }
+
+    /**
+     * @return The framed record, ready to be appended.
+     */
+    static ByteBuffer encode(LogRecord record) {
+        ByteBuffer payload = payload(record);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + payload.remaining())
+                .putInt(payload.remaining())
+                .putInt((int) crc.getValue())
+                .put(payload);
+        return frame.flip();
+    }
+
+    private static ByteBuffer payload(LogRecord record) {
+        ByteBuffer payload;
+        if (record instanceof Placed placed) {
+            payload = encodePlaced(placed);
+        } else if (record instanceof StatusChanged changed) {
+            payload = ByteBuffer.allocate(1 + Long.BYTES + 1 + Long.BYTES)
+                    .put(STATUS_CHANGED)
+                    .putLong(changed.id())
+                    .put((byte) changed.status().ordinal())
+                    .putLong(changed.version());
+        } else if (record instanceof Batch batch) {
+            payload = encodeBatch(batch);
+        } else {
+            payload = ByteBuffer.allocate(1 + Long.BYTES).put(SNAPSHOT).putLong(((Snapshot) record).nextId());
+        }
+        return payload.flip();
+    }
+
+    private static ByteBuffer encodeBatch(Batch batch) {
+        List<ByteBuffer> payloads = new ArrayList<>(batch.records().size());
+        int size = 1 + Integer.BYTES;
+        for (LogRecord record : batch.records()) {
+            ByteBuffer payload = payload(record);
+            payloads.add(payload);
+            size += Integer.BYTES + payload.remaining();
+        }
+        ByteBuffer payload = ByteBuffer.allocate(size)
+                .put(BATCH)
+                .putInt(payloads.size());
+        for (ByteBuffer record : payloads) {
+            payload.putInt(record.remaining()).put(record);
+        }
+        return payload;
+    }
+
+    private static ByteBuffer encodePlaced(Placed placed) {
+        byte[] orderReference = placed.orderReference().getBytes(StandardCharsets.UTF_8);
+        byte[] itemName = placed.itemName().getBytes(StandardCharsets.UTF_8);
+        byte[] shippingAddress = placed.shippingAddress().getBytes(StandardCharsets.UTF_8);
+        int size = 1 + 2 * Long.BYTES + 1 + Long.BYTES + 2 * Integer.BYTES + Long.BYTES
+                + 3 * Integer.BYTES + orderReference.length + itemName.length + shippingAddress.length;
+        ByteBuffer payload = ByteBuffer.allocate(size)
+                .put(PLACED)
+                .putLong(placed.id())
+                .putLong(placed.userId())
+                .put((byte) placed.status().ordinal())
+                .putLong(placed.placementTimestamp().toEpochSecond(ZoneOffset.UTC))
+                .putInt(placed.placementTimestamp().getNano())
+                .putInt(placed.quantity())
+                .putLong(placed.version());
+        putBytes(payload, orderReference);
+        putBytes(payload, itemName);
+        putBytes(payload, shippingAddress);
+        return payload;
+    }
+
+    /**
+     * Reads a record from a payload whose CRC has been checked.
+     */
+    static LogRecord decode(ByteBuffer payload) {
+        byte type = payload.get();
+        return switch (type) {
+            case PLACED -> {
+                long id = payload.getLong();
+                long userId = payload.getLong();
+                OrderStatus status = OrderStatus.values()[payload.get()];
+                LocalDateTime placementTimestamp = LocalDateTime.ofEpochSecond(payload.getLong(), payload.getInt(), ZoneOffset.UTC);
+                int quantity = payload.getInt();
+                long version = payload.getLong();
+                yield new Placed(id, userId, getString(payload), getString(payload), quantity, getString(payload),
+                        status, placementTimestamp, version);
+            }
+            case STATUS_CHANGED -> new StatusChanged(payload.getLong(), OrderStatus.values()[payload.get()], payload.getLong());
+            case SNAPSHOT -> new Snapshot(payload.getLong());
+            case BATCH -> {
+                int count = payload.getInt();
+                List<LogRecord> records = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    int length = payload.getInt();
+                    records.add(decode(payload.slice(payload.position(), length)));
+                    payload.position(payload.position() + length);
+                }
+                yield new Batch(records);
+            }
+            default -> throw new IllegalStateException("Unknown order log record type " + type);
+        };
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
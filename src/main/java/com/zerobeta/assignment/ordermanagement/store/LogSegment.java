@@ -0,0 +1,162 @@
+package com.zerobeta.assignment.ordermanagement.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * One memory-mapped file of the order log.
+ *
+ * A new segment is mapped at its full capacity; the zero bytes after the last record mark the end.
+ * Records are appended by copying them into the mapping, so an append is a memory copy, and
+ * {@link #force} writes the appended range to disk.
+ */
+final class LogSegment implements Closeable {
+
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+    private static final byte[] ZEROS = new byte[8192];
+
+    private final long sequence;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int position;
+
+    private LogSegment(long sequence, Path path, FileChannel channel, int capacity) throws IOException {
+        this.sequence = sequence;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /**
+     * Creates an empty segment of the given capacity.
+     */
+    static LogSegment create(Path directory, long sequence, int capacity) throws IOException {
+        Path path = path(directory, sequence);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new LogSegment(sequence, path, channel, capacity);
+    }
+
+    /**
+     * Maps an existing segment. Call {@link #replay} before appending to it.
+     */
+    static LogSegment open(Path path) throws IOException {
+        long sequence = sequenceOf(path).orElseThrow(() -> new IllegalArgumentException("Not a log segment: " + path));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Log segment is larger than 2 GB: " + path);
+        }
+        return new LogSegment(sequence, path, channel, (int) size);
+    }
+
+    static Path path(Path directory, long sequence) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, sequence, SUFFIX));
+    }
+
+    /**
+     * @return The sequence number of a segment file, or empty if the file is not a segment.
+     */
+    static OptionalLong sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return OptionalLong.empty();
+        }
+        try {
+            return OptionalLong.of(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    int position() {
+        return position;
+    }
+
+    /**
+     * Passes the payload of every intact record to the consumer and positions the segment after the
+     * last one. A record with a bad length or checksum, left by a crash in the middle of a write, ends
+     * the segment; it and everything after it are zeroed so they cannot be mistaken for records later.
+     *
+     * @return Whether a torn record was found.
+     */
+    boolean replay(Consumer<ByteBuffer> consumer) {
+        int offset = 0;
+        boolean torn = false;
+        while (offset + LogRecord.HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || length > buffer.capacity() - offset - LogRecord.HEADER_BYTES) {
+                torn = true;
+                break;
+            }
+            ByteBuffer payload = buffer.slice(offset + LogRecord.HEADER_BYTES, length);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(offset + Integer.BYTES)) {
+                torn = true;
+                break;
+            }
+            consumer.accept(payload);
+            offset += LogRecord.HEADER_BYTES + length;
+        }
+        position = offset;
+        if (torn) {
+            for (int i = offset; i < buffer.capacity(); i += ZEROS.length) {
+                buffer.put(i, ZEROS, 0, Math.min(ZEROS.length, buffer.capacity() - i));
+            }
+            buffer.force();
+        }
+        return torn;
+    }
+
+    /**
+     * Appends a framed record.
+     *
+     * @return False, without writing anything, if the record does not fit.
+     */
+    boolean append(ByteBuffer frame) {
+        int length = frame.remaining();
+        if (length > buffer.capacity() - position) {
+            return false;
+        }
+        buffer.put(position, frame, frame.position(), length);
+        position += length;
+        return true;
+    }
+
+    /**
+     * Writes the records appended since the given position to disk.
+     */
+    void force(int from) {
+        if (position > from) {
+            buffer.force(from, position - from);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // The mapping itself is released when the buffer is garbage collected
+        channel.close();
+    }
+}
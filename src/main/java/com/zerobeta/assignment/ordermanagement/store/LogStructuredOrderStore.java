@@ -0,0 +1,688 @@
+package com.zerobeta.assignment.ordermanagement.store;
+
+import com.zerobeta.assignment.ordermanagement.dto.DispatchCandidateDTO;
+import com.zerobeta.assignment.ordermanagement.dto.OrderHistoryItemDTO;
+import com.zerobeta.assignment.ordermanagement.entity.Order;
+import com.zerobeta.assignment.ordermanagement.entity.User;
+import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Order store that keeps orders in an embedded, append-only log of memory-mapped segments, with the
+ * indexes held in memory. Selected with the {@code logstore} profile.
+ *
+ * Every change is appended to the log, forced to disk unless {@code order.logstore.sync} is false,
+ * and then applied to the indexes by id, order reference, user and status. On startup the log is
+ * replayed to rebuild them; a record torn by a crash is discarded. A scheduled compaction rewrites
+ * the sealed segments as one record per live order.
+ *
+ * Inside a transaction, changes are held back until it commits. They are appended as one record and
+ * forced to disk just before the database commits, so a failed append rolls the transaction back,
+ * and they become visible once it has committed; if it rolls back they are dropped. Until then the
+ * orders and references a transaction changes are reserved, so other writers wait for it as they
+ * would for row locks, and conditional updates stay atomic check-and-sets. A transaction does not
+ * read its own changes. Outside a transaction every change is appended at once.
+ */
+@Component
+@Profile(LogStructuredOrderStore.PROFILE)
+public class LogStructuredOrderStore implements OrderStore {
+
+    public static final String PROFILE = "logstore";
+
+    private static final Logger logger = LoggerFactory.getLogger(LogStructuredOrderStore.class);
+
+    private static final Comparator<StoredOrder> NEWEST_FIRST = Comparator
+            .comparing((StoredOrder order) -> order.placementTimestamp).reversed()
+            .thenComparing(Comparator.comparingLong((StoredOrder order) -> order.id).reversed());
+    private static final Comparator<StoredOrder> OLDEST_FIRST = NEWEST_FIRST.reversed();
+    private static final NavigableSet<StoredOrder> NO_ORDERS = Collections.unmodifiableNavigableSet(new TreeSet<>(NEWEST_FIRST));
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Signalled when a transaction releases its reservations
+    private final Condition released = lock.writeLock().newCondition();
+    private final Map<Long, StoredOrder> byId = new HashMap<>();
+    private final Map<String, StoredOrder> byReference = new HashMap<>();
+    private final Map<Long, NavigableSet<StoredOrder>> byUser = new HashMap<>();
+    private final Map<OrderStatus, TreeMap<Long, StoredOrder>> byStatus = new EnumMap<>(OrderStatus.class);
+    private final Map<OrderStatus, NavigableSet<StoredOrder>> byStatusPlacement = new EnumMap<>(OrderStatus.class);
+    // Indexed by status ordinal
+    private final Map<Long, long[]> userCounts = new HashMap<>();
+    // Orders and references changed by transactions that have not completed yet
+    private final Map<Long, PendingChanges> reservedIds = new HashMap<>();
+    private final Map<String, PendingChanges> reservedReferences = new HashMap<>();
+    // Transactions whose changes are in the log but not yet in the indexes; compaction waits for them
+    private int unappliedTransactions;
+    private final long lockTimeoutMillis;
+    private final int compactionMinSegments;
+    private final Counter compactions;
+    private final OrderLog log;
+    private long nextId = 1;
+
+    public LogStructuredOrderStore(@Value("${order.logstore.dir:data/orders}") Path directory,
+                                   @Value("${order.logstore.segment.bytes:67108864}") int segmentBytes,
+                                   @Value("${order.logstore.sync:true}") boolean sync,
+                                   @Value("${order.logstore.compaction.min.segments:4}") int compactionMinSegments,
+                                   @Value("${order.logstore.lock.timeout.ms:10000}") long lockTimeoutMillis,
+                                   MeterRegistry meterRegistry) throws IOException {
+        if (segmentBytes <= LogRecord.HEADER_BYTES || compactionMinSegments < 2) {
+            throw new IllegalArgumentException("Order log segment size must hold a record and compaction needs >= 2 segments");
+        }
+        for (OrderStatus status : OrderStatus.values()) {
+            byStatus.put(status, new TreeMap<>());
+            byStatusPlacement.put(status, new TreeSet<>(OLDEST_FIRST));
+        }
+        this.compactionMinSegments = compactionMinSegments;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+
+        long startTime = System.nanoTime();
+        this.log = OrderLog.open(directory, segmentBytes, sync, this::apply);
+        logger.info("Order log {} replayed: {} orders in {} segments in {} ms.", directory, byId.size(),
+                log.segmentCount(), (System.nanoTime() - startTime) / 1_000_000);
+
+        Gauge.builder("orders.logstore.orders", this, store -> store.read(store.byId::size))
+                .description("Orders held by the log-structured order store")
+                .register(meterRegistry);
+        Gauge.builder("orders.logstore.segments", this, store -> store.read(store.log::segmentCount))
+                .description("Segments of the order log")
+                .register(meterRegistry);
+        this.compactions = Counter.builder("orders.logstore.compactions")
+                .description("Compactions of the order log")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Assigns the ids at once; the orders become visible when the transaction commits.
+     */
+    @Override
+    public void insert(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        change(changes -> {
+            for (Order order : orders) {
+                String orderReference = order.getOrderReference();
+                if (byReference.containsKey(orderReference) || reservedReferences.putIfAbsent(orderReference, changes) != null) {
+                    throw new DataIntegrityViolationException("Duplicate order reference: " + orderReference);
+                }
+                changes.references.add(orderReference);
+            }
+            for (Order order : orders) {
+                order.setId(nextId++);
+                order.setVersion(0);
+                changes.records.add(new LogRecord.Placed(order.getId(), order.getUser().getId(), order.getOrderReference(),
+                        order.getItemName(), order.getQuantity(), order.getShippingAddress(), OrderStatus.NEW,
+                        order.getPlacementTimestamp(), 0));
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<Order> findByOrderReference(String orderReference) {
+        return read(() -> Optional.ofNullable(byReference.get(orderReference)).map(StoredOrder::toOrder));
+    }
+
+    @Override
+    public boolean existsByOrderReference(String orderReference) {
+        return read(() -> byReference.containsKey(orderReference));
+    }
+
+    @Override
+    public int updateOrderStatusForUser(String orderReference, Long userId, OrderStatus currentStatus, OrderStatus status) {
+        boolean updated = change(changes -> {
+            StoredOrder order = byReference.get(orderReference);
+            if (order == null || order.userId != userId) {
+                return false;
+            }
+            awaitRelease(List.of(order), changes);
+            if (order.status != currentStatus) {
+                return false;
+            }
+            reserveStatusChange(order, status, changes);
+            return true;
+        });
+        return updated ? 1 : 0;
+    }
+
+    @Override
+    public Optional<OrderStatus> findStatusForUser(String orderReference, Long userId) {
+        return read(() -> Optional.ofNullable(byReference.get(orderReference))
+                .filter(order -> order.userId == userId)
+                .map(order -> order.status));
+    }
+
+    /**
+     * Moves the orders only if every one of them is still in the current status; otherwise nothing is
+     * changed and 0 is returned. Candidates are not locked when they are selected, so this is how a
+     * concurrent change is detected.
+     */
+    @Override
+    public int updateOrderStatusByIds(List<Long> ids, LocalDateTime since, OrderStatus currentStatus, OrderStatus status) {
+        boolean updated = change(changes -> {
+            List<StoredOrder> orders = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                StoredOrder order = byId.get(id);
+                if (order == null) {
+                    return false;
+                }
+                orders.add(order);
+            }
+            awaitRelease(orders, changes);
+            for (StoredOrder order : orders) {
+                if (order.status != currentStatus || order.placementTimestamp.isBefore(since)) {
+                    return false;
+                }
+            }
+            orders.forEach(order -> reserveStatusChange(order, status, changes));
+            return true;
+        });
+        return updated ? ids.size() : 0;
+    }
+
+    @Override
+    public List<OrderHistoryItemDTO> findHistoryPage(Long userId, Pageable pageable) {
+        return read(() -> ordersOf(userId).stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(StoredOrder::toHistoryItem)
+                .toList());
+    }
+
+    @Override
+    public List<OrderHistoryItemDTO> findHistoryFirstSlice(Long userId, Pageable pageable) {
+        return findHistoryPage(userId, pageable);
+    }
+
+    @Override
+    public List<OrderHistoryItemDTO> findHistorySliceAfter(Long userId, LocalDateTime placementTimestamp, long id, Pageable pageable) {
+        return read(() -> ordersOf(userId).tailSet(StoredOrder.position(placementTimestamp, id), false).stream()
+                .limit(pageable.getPageSize())
+                .map(StoredOrder::toHistoryItem)
+                .toList());
+    }
+
+    /**
+     * The orders are copied while the read lock is held, so the stream does not see later changes.
+     */
+    @Override
+    public Stream<OrderHistoryItemDTO> streamForExport(Long userId, LocalDateTime from, LocalDateTime to) {
+        // Newest first, so [from, to) lies after every order placed at to and up to the last one placed at from
+        List<OrderHistoryItemDTO> orders = read(() -> ordersOf(userId)
+                .subSet(StoredOrder.position(to, Long.MIN_VALUE), false, StoredOrder.position(from, Long.MIN_VALUE), false)
+                .descendingSet().stream()
+                .map(StoredOrder::toHistoryItem)
+                .toList());
+        return orders.stream();
+    }
+
+    @Override
+    public Map<OrderStatus, Long> countByStatusForUser(Long userId) {
+        return read(() -> {
+            Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+            long[] userCount = userCounts.get(userId);
+            if (userCount != null) {
+                for (OrderStatus status : OrderStatus.values()) {
+                    if (userCount[status.ordinal()] > 0) {
+                        counts.put(status, userCount[status.ordinal()]);
+                    }
+                }
+            }
+            return counts;
+        });
+    }
+
+    @Override
+    public long countForUser(Long userId) {
+        return read(() -> ordersOf(userId).size());
+    }
+
+    @Override
+    public long countByStatus(OrderStatus status) {
+        return read(() -> byStatus.get(status).size());
+    }
+
+    @Override
+    public LocalDateTime findOldestPlacementByStatus(OrderStatus status) {
+        return read(() -> {
+            NavigableSet<StoredOrder> orders = byStatusPlacement.get(status);
+            return orders.isEmpty() ? null : orders.first().placementTimestamp;
+        });
+    }
+
+    @Override
+    public Long findMinIdByStatus(OrderStatus status, LocalDateTime since) {
+        return read(() -> firstPlacedSince(byStatus.get(status).values(), since));
+    }
+
+    @Override
+    public Long findMaxIdByStatus(OrderStatus status, LocalDateTime since) {
+        return read(() -> firstPlacedSince(byStatus.get(status).descendingMap().values(), since));
+    }
+
+    /**
+     * The candidates are not locked; {@link #updateOrderStatusByIds} detects orders that changed since.
+     */
+    @Override
+    public List<DispatchCandidateDTO> findDispatchCandidates(OrderStatus status, LocalDateTime since, long afterId, long maxId,
+                                                             Pageable pageable) {
+        return read(() -> byStatus.get(status).subMap(afterId, false, maxId, true).values().stream()
+                .filter(order -> !order.placementTimestamp.isBefore(since))
+                .limit(pageable.getPageSize())
+                .map(order -> new DispatchCandidateDTO(order.id, order.orderReference))
+                .toList());
+    }
+
+    /**
+     * Scheduled job that compacts the order log once enough segments are sealed. The live orders are
+     * copied under the read lock and written out without holding any lock; only the swap of the files
+     * blocks writers.
+     */
+    @Scheduled(fixedDelayString = "${order.logstore.compaction.interval.ms:60000}")
+    public void compact() {
+        List<Path> segments;
+        List<LogRecord> records;
+        long compactedNextId;
+        lock.readLock().lock();
+        try {
+            segments = log.sealedSegments();
+            if (segments.size() < compactionMinSegments || unappliedTransactions > 0) {
+                return;
+            }
+            records = new ArrayList<>(byId.size());
+            for (StoredOrder order : byId.values()) {
+                records.add(order.toPlaced());
+            }
+            compactedNextId = nextId;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long startTime = System.nanoTime();
+        try {
+            Path compacted = log.writeCompacted(segments, compactedNextId, records);
+            lock.writeLock().lock();
+            try {
+                log.replaceSegments(segments, compacted);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            logger.error("Order log compaction failed; the segments are left as they were.", e);
+            return;
+        }
+        compactions.increment();
+        logger.info("Order log compaction completed. Rewrote {} segments as {} orders in {} ms.",
+                segments.size(), records.size(), (System.nanoTime() - startTime) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            log.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stages a change in the changes of the current transaction, or appends it at once outside a
+     * transaction. The update runs under the write lock.
+     */
+    private <T> T change(Function<PendingChanges, T> update) {
+        PendingChanges changes = pendingChanges();
+        T result;
+        try {
+            result = write(() -> update.apply(changes));
+        } catch (RuntimeException e) {
+            if (!changes.transactional) {
+                write(() -> {
+                    release(changes);
+                    return null;
+                });
+            }
+            throw e;
+        }
+        if (!changes.transactional) {
+            write(() -> {
+                try {
+                    appendToLog(changes);
+                    applyAppended(changes);
+                } finally {
+                    release(changes);
+                }
+                return null;
+            });
+        }
+        return result;
+    }
+
+    private PendingChanges pendingChanges() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new PendingChanges(false);
+        }
+        PendingChanges bound = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (bound != null) {
+            return bound;
+        }
+        PendingChanges changes = new PendingChanges(true);
+        TransactionSynchronizationManager.bindResource(this, changes);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // Throwing here rolls the database transaction back
+                write(() -> {
+                    appendToLog(changes);
+                    return null;
+                });
+            }
+
+            @Override
+            public void afterCommit() {
+                write(() -> {
+                    applyAppended(changes);
+                    return null;
+                });
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(LogStructuredOrderStore.this);
+                write(() -> {
+                    release(changes);
+                    return null;
+                });
+            }
+        });
+        return changes;
+    }
+
+    /**
+     * Appends the changes to the log as one record. Must hold the write lock.
+     *
+     * @throws DataAccessResourceFailureException if the log cannot be written.
+     */
+    private void appendToLog(PendingChanges changes) {
+        if (changes.records.isEmpty()) {
+            return;
+        }
+        try {
+            log.append(changes.records);
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Could not append to the order log", e);
+        }
+        changes.appended = true;
+        unappliedTransactions++;
+    }
+
+    /**
+     * Applies appended changes to the indexes. Must hold the write lock.
+     */
+    private void applyAppended(PendingChanges changes) {
+        if (changes.appended) {
+            changes.records.forEach(this::apply);
+            changes.appended = false;
+            unappliedTransactions--;
+        }
+    }
+
+    /**
+     * Releases the reservations of the changes. Must hold the write lock.
+     */
+    private void release(PendingChanges changes) {
+        if (changes.appended) {
+            // The database commit failed after the append; the next compaction drops the records
+            changes.appended = false;
+            unappliedTransactions--;
+            logger.error("A transaction rolled back after appending {} order changes to the order log; they are "
+                    + "replayed if the service restarts before the next compaction.", changes.records.size());
+        }
+        changes.ids.forEach(reservedIds::remove);
+        changes.references.forEach(reservedReferences::remove);
+        released.signalAll();
+    }
+
+    private void reserveStatusChange(StoredOrder order, OrderStatus status, PendingChanges changes) {
+        reservedIds.put(order.id, changes);
+        changes.ids.add(order.id);
+        changes.records.add(new LogRecord.StatusChanged(order.id, status, order.version + 1));
+    }
+
+    /**
+     * Waits, releasing the write lock meanwhile, until no other transaction has reserved any of the orders.
+     */
+    private void awaitRelease(List<StoredOrder> orders, PendingChanges changes) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lockTimeoutMillis);
+        while (orders.stream().anyMatch(order -> reservedIds.getOrDefault(order.id, changes) != changes)) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new CannotAcquireLockException("Timed out waiting for a concurrent change of the orders");
+            }
+            try {
+                released.awaitNanos(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CannotAcquireLockException("Interrupted waiting for a concurrent change of the orders", e);
+            }
+        }
+    }
+
+    /**
+     * Applies a record to the indexes, both on replay and after an append.
+     */
+    private void apply(LogRecord record) {
+        if (record instanceof LogRecord.Placed placed) {
+            remove(placed.id());
+            StoredOrder order = new StoredOrder(placed);
+            byId.put(order.id, order);
+            byReference.put(order.orderReference, order);
+            byUser.computeIfAbsent(order.userId, userId -> new TreeSet<>(NEWEST_FIRST)).add(order);
+            indexStatus(order);
+            nextId = Math.max(nextId, order.id + 1);
+        } else if (record instanceof LogRecord.StatusChanged changed) {
+            StoredOrder order = byId.get(changed.id());
+            if (order != null) {
+                unindexStatus(order);
+                order.status = changed.status();
+                order.version = changed.version();
+                indexStatus(order);
+            }
+        } else if (record instanceof LogRecord.Batch batch) {
+            batch.records().forEach(this::apply);
+        } else if (record instanceof LogRecord.Snapshot snapshot) {
+            // A compacted segment follows with the full state
+            nextId = Math.max(nextId, snapshot.nextId());
+            byId.clear();
+            byReference.clear();
+            byUser.clear();
+            byStatus.values().forEach(Map::clear);
+            byStatusPlacement.values().forEach(Collection::clear);
+            userCounts.clear();
+        }
+    }
+
+    private void remove(long id) {
+        StoredOrder order = byId.remove(id);
+        if (order == null) {
+            return;
+        }
+        byReference.remove(order.orderReference);
+        NavigableSet<StoredOrder> userOrders = byUser.get(order.userId);
+        userOrders.remove(order);
+        if (userOrders.isEmpty()) {
+            byUser.remove(order.userId);
+        }
+        unindexStatus(order);
+    }
+
+    private void indexStatus(StoredOrder order) {
+        byStatus.get(order.status).put(order.id, order);
+        byStatusPlacement.get(order.status).add(order);
+        userCounts.computeIfAbsent(order.userId, userId -> new long[OrderStatus.values().length])[order.status.ordinal()]++;
+    }
+
+    private void unindexStatus(StoredOrder order) {
+        byStatus.get(order.status).remove(order.id);
+        byStatusPlacement.get(order.status).remove(order);
+        long[] userCount = userCounts.get(order.userId);
+        if (--userCount[order.status.ordinal()] == 0 && ordersOf(order.userId).isEmpty()) {
+            userCounts.remove(order.userId);
+        }
+    }
+
+    private NavigableSet<StoredOrder> ordersOf(Long userId) {
+        return byUser.getOrDefault(userId, NO_ORDERS);
+    }
+
+    private static Long firstPlacedSince(Collection<StoredOrder> orders, LocalDateTime since) {
+        for (StoredOrder order : orders) {
+            if (!order.placementTimestamp.isBefore(since)) {
+                return order.id;
+            }
+        }
+        return null;
+    }
+
+    private <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <T> T write(Supplier<T> update) {
+        lock.writeLock().lock();
+        try {
+            return update.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * An order as held in the indexes. Only the status and version change after it is placed.
+     */
+    private static final class StoredOrder {
+
+        final long id;
+        final long userId;
+        final String orderReference;
+        final String itemName;
+        final int quantity;
+        final String shippingAddress;
+        final LocalDateTime placementTimestamp;
+        OrderStatus status;
+        long version;
+
+        StoredOrder(LogRecord.Placed placed) {
+            this(placed.id(), placed.userId(), placed.orderReference(), placed.itemName(), placed.quantity(),
+                    placed.shippingAddress(), placed.placementTimestamp(), placed.status(), placed.version());
+        }
+
+        private StoredOrder(long id, long userId, String orderReference, String itemName, int quantity, String shippingAddress,
+                            LocalDateTime placementTimestamp, OrderStatus status, long version) {
+            this.id = id;
+            this.userId = userId;
+            this.orderReference = orderReference;
+            this.itemName = itemName;
+            this.quantity = quantity;
+            this.shippingAddress = shippingAddress;
+            this.placementTimestamp = placementTimestamp;
+            this.status = status;
+            this.version = version;
+        }
+
+        /**
+         * A key for seeking in the history of a user.
+         */
+        static StoredOrder position(LocalDateTime placementTimestamp, long id) {
+            return new StoredOrder(id, 0, null, null, 0, null, placementTimestamp, null, 0);
+        }
+
+        LogRecord.Placed toPlaced() {
+            return new LogRecord.Placed(id, userId, orderReference, itemName, quantity, shippingAddress, status,
+                    placementTimestamp, version);
+        }
+
+        OrderHistoryItemDTO toHistoryItem() {
+            return new OrderHistoryItemDTO(id, orderReference, itemName, quantity, shippingAddress, status, placementTimestamp);
+        }
+
+        /**
+         * @return A detached order whose user only carries the id.
+         */
+        Order toOrder() {
+            User user = new User();
+            user.setId(userId);
+            Order order = new Order();
+            order.setId(id);
+            order.setUser(user);
+            order.setOrderReference(orderReference);
+            order.setItemName(itemName);
+            order.setQuantity(quantity);
+            order.setShippingAddress(shippingAddress);
+            order.setStatus(status);
+            order.setPlacementTimestamp(placementTimestamp);
+            order.setVersion(version);
+            return order;
+        }
+    }
+
+    /**
+     * The changes of one transaction, appended to the log when it commits.
+     */
+    private static final class PendingChanges {
+
+        final boolean transactional;
+        final List<LogRecord> records = new ArrayList<>();
+        final List<Long> ids = new ArrayList<>();
+        final List<String> references = new ArrayList<>();
+        // In the log but not yet applied to the indexes
+        boolean appended;
+
+        PendingChanges(boolean transactional) {
+            this.transactional = transactional;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.zerobeta.assignment.ordermanagement.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * The append-only log of the order store: a directory of segments replayed in sequence order.
+ *
+ * Records are appended to the active segment; when it is full it is sealed and a new one is created.
+ * Compaction rewrites sealed segments as a single segment that starts with a {@link LogRecord.Snapshot}
+ * and holds one {@link LogRecord.Placed} record per live order, under the sequence number of the newest
+ * segment it replaces.
+ * Not thread-safe: {@link LogStructuredOrderStore} serializes the calls.
+ */
+final class OrderLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderLog.class);
+    private static final String COMPACTING_SUFFIX = ".compacting";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean sync;
+    private final List<Path> sealed = new ArrayList<>();
+    private LogSegment active;
+
+    private OrderLog(Path directory, int segmentBytes, boolean sync) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.sync = sync;
+    }
+
+    /**
+     * Opens the log in the directory, creating it if needed, and replays every record.
+     *
+     * @param segmentBytes The capacity of new segments.
+     * @param sync         Whether each append is forced to disk before it returns.
+     * @param replay       Receives the records in log order.
+     */
+    static OrderLog open(Path directory, int segmentBytes, boolean sync, Consumer<LogRecord> replay) throws IOException {
+        Files.createDirectories(directory);
+        OrderLog log = new OrderLog(directory, segmentBytes, sync);
+
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> all = files.toList();
+            for (Path file : all) {
+                if (file.getFileName().toString().endsWith(COMPACTING_SUFFIX)) {
+                    Files.delete(file); // Left by a compaction that did not finish; the segments it read are intact
+                }
+            }
+            segments = all.stream()
+                    .filter(file -> LogSegment.sequenceOf(file).isPresent())
+                    .sorted(Comparator.comparingLong(file -> LogSegment.sequenceOf(file).getAsLong()))
+                    .toList();
+        }
+
+        for (int i = 0; i < segments.size(); i++) {
+            LogSegment segment = LogSegment.open(segments.get(i));
+            boolean torn = segment.replay(payload -> replay.accept(LogRecord.decode(payload)));
+            if (torn) {
+                logger.warn("Order log segment {} ends in a torn record at offset {}; the record was discarded.",
+                        segment.path().getFileName(), segment.position());
+            }
+            if (i < segments.size() - 1) {
+                log.sealed.add(segment.path());
+                segment.close();
+            } else {
+                log.active = segment;
+            }
+        }
+        if (log.active == null) {
+            log.active = LogSegment.create(directory, 1, segmentBytes);
+        }
+        return log;
+    }
+
+    /**
+     * Appends the records as one frame, so they are replayed all together or not at all, rolling to a
+     * new segment when the active one is full.
+     */
+    void append(List<LogRecord> records) throws IOException {
+        ByteBuffer frame = LogRecord.encode(records.size() == 1 ? records.get(0) : new LogRecord.Batch(records));
+        int from = active.position();
+        if (!active.append(frame)) {
+            if (frame.remaining() > segmentBytes) {
+                throw new IllegalArgumentException("Order log record of " + frame.remaining() + " bytes exceeds the segment size");
+            }
+            roll();
+            from = 0;
+            active.append(frame);
+        }
+        if (sync) {
+            active.force(from);
+        }
+    }
+
+    private void roll() throws IOException {
+        LogSegment next = LogSegment.create(directory, active.sequence() + 1, segmentBytes);
+        active.close();
+        sealed.add(active.path());
+        active = next;
+    }
+
+    /**
+     * @return The sealed segments, oldest first.
+     */
+    List<Path> sealedSegments() {
+        return List.copyOf(sealed);
+    }
+
+    int segmentCount() {
+        return sealed.size() + 1;
+    }
+
+    /**
+     * Writes the records to a new file that will replace the given sealed segments, after a snapshot
+     * carrying the next order id. Only touches the new file, so it may run while records are appended.
+     *
+     * @return The written file, to be passed to {@link #replaceSegments}.
+     */
+    Path writeCompacted(List<Path> segments, long nextId, List<LogRecord> records) throws IOException {
+        Path target = segments.get(segments.size() - 1);
+        Path compacted = target.resolveSibling(target.getFileName() + COMPACTING_SUFFIX);
+        try (FileChannel channel = FileChannel.open(compacted, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+             OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16)) {
+            write(out, new LogRecord.Snapshot(nextId));
+            for (LogRecord record : records) {
+                write(out, record);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        return compacted;
+    }
+
+    private static void write(OutputStream out, LogRecord record) throws IOException {
+        ByteBuffer frame = LogRecord.encode(record);
+        out.write(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining());
+    }
+
+    /**
+     * Replaces sealed segments with a compacted file. The file first replaces the newest of them in one
+     * atomic rename, so a crash at any point leaves a log that replays to the same state.
+     */
+    void replaceSegments(List<Path> segments, Path compacted) throws IOException {
+        Path target = segments.get(segments.size() - 1);
+        Files.move(compacted, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        for (Path segment : segments.subList(0, segments.size() - 1)) {
+            Files.delete(segment);
+        }
+        sealed.removeAll(segments);
+        sealed.add(0, target);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (sync) {
+            active.force(0);
+        }
+        active.close();
+    }
+}
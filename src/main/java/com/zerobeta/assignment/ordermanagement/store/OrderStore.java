@@ -0,0 +1,102 @@
+package com.zerobeta.assignment.ordermanagement.store;
+
+import com.zerobeta.assignment.ordermanagement.dto.DispatchCandidateDTO;
+import com.zerobeta.assignment.ordermanagement.dto.OrderHistoryItemDTO;
+import com.zerobeta.assignment.ordermanagement.entity.Order;
+import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Storage engine for orders and the per-user order counts derived from them.
+ *
+ * {@link JpaOrderStore} keeps orders in the relational database and is used by default;
+ * {@link LogStructuredOrderStore} keeps them in an embedded, memory-mapped log and is selected with the
+ * {@code logstore} profile. Methods are called inside the caller's transaction where there is one.
+ * Every status change and insert also updates the user's order counts.
+ */
+public interface OrderStore {
+
+    /**
+     * Stores new orders, of one or several users, and assigns their ids.
+     *
+     * @param orders Orders in status NEW, not yet stored.
+     */
+    void insert(List<Order> orders);
+
+    Optional<Order> findByOrderReference(String orderReference);
+
+    boolean existsByOrderReference(String orderReference);
+
+    /**
+     * Conditionally moves one of the user's orders from the current to the new status, as a single
+     * check-and-set that cannot interleave with a dispatch.
+     *
+     * @return 1 if the order was updated, or 0 if it does not exist, belongs to another user
+     *         or is no longer in the current status.
+     */
+    int updateOrderStatusForUser(String orderReference, Long userId, OrderStatus currentStatus, OrderStatus status);
+
+    Optional<OrderStatus> findStatusForUser(String orderReference, Long userId);
+
+    /**
+     * Moves the given orders, placed at or after since, from the current to the new status.
+     * The caller must roll back its transaction unless every order was updated.
+     *
+     * @return The number of orders updated.
+     */
+    int updateOrderStatusByIds(List<Long> ids, LocalDateTime since, OrderStatus currentStatus, OrderStatus status);
+
+    /**
+     * Page of a user's order history at the offset of the pageable, newest first.
+     */
+    List<OrderHistoryItemDTO> findHistoryPage(Long userId, Pageable pageable);
+
+    /**
+     * First slice of a user's order history, newest first, limited by the page size of the pageable.
+     */
+    List<OrderHistoryItemDTO> findHistoryFirstSlice(Long userId, Pageable pageable);
+
+    /**
+     * Slice of a user's order history that follows the order at (placementTimestamp, id), newest first.
+     */
+    List<OrderHistoryItemDTO> findHistorySliceAfter(Long userId, LocalDateTime placementTimestamp, long id, Pageable pageable);
+
+    /**
+     * Streams a user's orders placed in [from, to), oldest first. The caller must close the stream,
+     * inside a transaction.
+     */
+    Stream<OrderHistoryItemDTO> streamForExport(Long userId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * @return The user's number of orders in each status that has any.
+     */
+    Map<OrderStatus, Long> countByStatusForUser(Long userId);
+
+    /**
+     * @return The user's total number of orders.
+     */
+    long countForUser(Long userId);
+
+    long countByStatus(OrderStatus status);
+
+    LocalDateTime findOldestPlacementByStatus(OrderStatus status);
+
+    Long findMinIdByStatus(OrderStatus status, LocalDateTime since);
+
+    Long findMaxIdByStatus(OrderStatus status, LocalDateTime since);
+
+    /**
+     * Next chunk of orders with the given status, placed at or after since, in the id range
+     * (afterId, maxId], ordered by id. The page size of the pageable limits the chunk; its offset must be 0.
+     * A store either keeps the orders locked until the caller's transaction ends, or makes
+     * {@link #updateOrderStatusByIds} update all of them or none, so a concurrent change is detected.
+     */
+    List<DispatchCandidateDTO> findDispatchCandidates(OrderStatus status, LocalDateTime since, long afterId, long maxId,
+                                                      Pageable pageable);
+}
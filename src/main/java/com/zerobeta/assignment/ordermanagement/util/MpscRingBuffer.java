@@ -0,0 +1,111 @@
+package com.zerobeta.assignment.ordermanagement.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free ring buffer for many producers and a single consumer.
+ *
+ * Every slot carries a sequence number that says whose turn it is: a producer claims the next
+ * position with a CAS on the tail and publishes its element by advancing the slot's sequence,
+ * and the consumer frees the slot by advancing it once more by the capacity. {@link #offer}
+ * never blocks; it returns false when the buffer is full so the caller can apply backpressure.
+ *
+ * @param <E> The type of the elements.
+ */
+public class MpscRingBuffer<E> {
+
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head; // Only written by the consumer
+
+    /**
+     * @param capacity The number of slots; must be a power of two.
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two >= 2: " + capacity);
+        }
+        this.elements = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element if there is a free slot. Safe to call from any number of threads.
+     *
+     * @param element The element to add.
+     * @return true if the element was added, false if the buffer is full.
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("Ring buffer elements must not be null");
+        }
+        long position;
+        while (true) {
+            position = tail.get();
+            long difference = sequences.get(index(position)) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                return false; // The slot still holds an element from the previous lap
+            }
+            // Otherwise another producer claimed the position first; retry with the new tail
+        }
+        int index = index(position);
+        elements[index] = element;
+        sequences.set(index, position + 1); // Publishes the element to the consumer
+        return true;
+    }
+
+    /**
+     * Removes up to the given number of elements in insertion order and passes them to the sink.
+     * Must only be called from the single consumer thread.
+     *
+     * @param sink        Receives the removed elements.
+     * @param maxElements The maximum number of elements to remove.
+     * @return The number of elements removed.
+     */
+    @SuppressWarnings("unchecked")
+    public int drain(Consumer<? super E> sink, int maxElements) {
+        long position = head;
+        int drained = 0;
+        while (drained < maxElements) {
+            int index = index(position);
+            if (sequences.get(index) != position + 1) {
+                break; // Empty, or the producer has claimed the slot but not published yet
+            }
+            E element = (E) elements[index];
+            elements[index] = null;
+            sequences.set(index, position + elements.length); // Frees the slot for the next lap
+            position++;
+            drained++;
+            sink.accept(element);
+        }
+        head = position;
+        return drained;
+    }
+
+    /**
+     * @return The approximate number of elements in the buffer.
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(tail.get() - head, elements.length));
+    }
+
+    public int capacity() {
+        return elements.length;
+    }
+
+    private int index(long position) {
+        return (int) position & mask;
+    }
+}
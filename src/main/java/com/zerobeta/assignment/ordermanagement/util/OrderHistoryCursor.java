@@ -0,0 +1,46 @@
+package com.zerobeta.assignment.ordermanagement.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a user's order history, ordered by placement timestamp and id, newest first.
+ * Clients receive it as an opaque Base64url token and pass it back to fetch the next slice.
+ *
+ * @param placementTimestamp The placement timestamp of the last order of the previous slice.
+ * @param id                 The id of the last order of the previous slice.
+ */
+public record OrderHistoryCursor(LocalDateTime placementTimestamp, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Encodes the cursor as an opaque token.
+     *
+     * @return The Base64url encoded cursor.
+     */
+    public String encode() {
+        String raw = placementTimestamp.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @param token The opaque cursor token.
+     * @return The decoded cursor.
+     * @throws IllegalArgumentException if the token is not a valid cursor.
+     */
+    public static OrderHistoryCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new OrderHistoryCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
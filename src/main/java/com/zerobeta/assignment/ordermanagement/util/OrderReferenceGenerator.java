@@ -0,0 +1,149 @@
+package com.zerobeta.assignment.ordermanagement.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generates unique, time-sortable order references without locks or database round trips.
+ *
+ * Each reference is a 63-bit Snowflake-style id made of a 41-bit millisecond timestamp,
+ * a 10-bit node id and a 12-bit sequence, encoded as "ORD" followed by 13 base-36 digits.
+ * The fixed width makes lexicographic order match generation order.
+ *
+ * References are unique across threads of one node by construction, and across nodes
+ * as long as every node is configured with a distinct {@code order.reference.node.id}. The
+ * property has no default, so an instance without a node id fails at startup instead of
+ * sharing node 0 with the others.
+ *
+ * The generator never runs more than {@link #MAX_LEAD_MILLIS} ahead of the clock and starts
+ * that far ahead, so a restarted node cannot reissue the ids of its previous run unless the
+ * clock was stepped back across the restart.
+ */
+@Component
+public class OrderReferenceGenerator {
+
+    public static final String PREFIX = "ORD";
+
+    static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    static final int NODE_ID_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_ID_BITS) - 1;
+    static final long MAX_LEAD_MILLIS = 1000;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int ENCODED_LENGTH = 13; // Long.MAX_VALUE in base 36 has 13 digits
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    private static final long LEAD_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final long nodeId;
+
+    // Last issued timestamp (relative to the epoch) shifted left by SEQUENCE_BITS, plus the sequence.
+    private final AtomicLong state;
+
+    public OrderReferenceGenerator(@Value("${order.reference.node.id}") long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Order reference node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        // The previous run of this node issued no timestamp beyond its clock plus the maximum lead,
+        // so starting just past the maximum lead continues after all of them.
+        long lastTimestamp = System.currentTimeMillis() - EPOCH_MILLIS + MAX_LEAD_MILLIS;
+        this.state = new AtomicLong((lastTimestamp << SEQUENCE_BITS) | SEQUENCE_MASK);
+    }
+
+    /**
+     * Generates the next order reference.
+     *
+     * @return A unique order reference such as "ORD0AB12CD34EF56".
+     */
+    public String nextReference() {
+        return encode(nextId());
+    }
+
+    /**
+     * Generates the next numeric id.
+     *
+     * The timestamp never moves backwards: if the clock goes back, or more than 4096 ids are
+     * requested within one millisecond, the sequence overflows into the timestamp and the
+     * generator runs slightly ahead of the clock until it catches up. Once it is
+     * {@link #MAX_LEAD_MILLIS} ahead, callers wait for the clock instead.
+     *
+     * @return A unique, monotonically increasing id.
+     */
+    long nextId() {
+        long next;
+        while (true) {
+            long current = state.get();
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            next = now > (current >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : current + 1;
+            if ((next >>> SEQUENCE_BITS) - now > MAX_LEAD_MILLIS) {
+                LockSupport.parkNanos(LEAD_WAIT_NANOS);
+            } else if (state.compareAndSet(current, next)) {
+                break;
+            }
+        }
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        long sequence = next & SEQUENCE_MASK;
+        return (timestamp << (NODE_ID_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    /**
+     * Extracts the generation time from a reference produced by {@link #nextReference()}.
+     *
+     * @param reference The order reference.
+     * @return The generation time in milliseconds since the Unix epoch, or empty if the
+     *         reference was not produced by this generator.
+     */
+    public static OptionalLong generatedAtMillis(String reference) {
+        if (reference == null || reference.length() != PREFIX.length() + ENCODED_LENGTH || !reference.startsWith(PREFIX)) {
+            return OptionalLong.empty();
+        }
+        long id = 0;
+        for (int i = PREFIX.length(); i < reference.length(); i++) {
+            int digit = Character.digit(reference.charAt(i), 36);
+            if (digit < 0 || Character.isLowerCase(reference.charAt(i)) || id > (Long.MAX_VALUE - digit) / 36) {
+                return OptionalLong.empty();
+            }
+            id = id * 36 + digit;
+        }
+        return OptionalLong.of((id >>> (NODE_ID_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS);
+    }
+
+    /**
+     * Returns the placement timestamp of the order a reference was generated for: the generation
+     * time in the system time zone. Equal references therefore always get equal placement
+     * timestamps, which is what lets the unique key on (order_reference, placement_timestamp)
+     * catch a duplicate reference.
+     *
+     * @param reference An order reference produced by {@link #nextReference()}.
+     * @return The placement timestamp for the order.
+     * @throws IllegalArgumentException if the reference was not produced by this generator.
+     */
+    public static LocalDateTime placementTimestampOf(String reference) {
+        long generatedAtMillis = generatedAtMillis(reference)
+                .orElseThrow(() -> new IllegalArgumentException("Not a generated order reference: " + reference));
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(generatedAtMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * Encodes an id as the prefix followed by fixed-width, zero-padded base-36 digits.
+     */
+    static String encode(long id) {
+        char[] chars = new char[PREFIX.length() + ENCODED_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = DIGITS[(int) (id % 36)];
+            id /= 36;
+        }
+        return new String(chars);
+    }
+}
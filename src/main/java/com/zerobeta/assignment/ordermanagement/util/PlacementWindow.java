@@ -0,0 +1,42 @@
+package com.zerobeta.assignment.ordermanagement.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.OptionalLong;
+
+/**
+ * Range of placement timestamps an order can have, used to bound lookups by order reference so
+ * MySQL only reads the partitions of the orders table that can hold the order.
+ *
+ * References carry their generation time, and an order's placement timestamp is that time in the
+ * system time zone, so the window is that time plus or minus {@link #SLACK}. The slack covers orders
+ * placed before the placement timestamp was taken from the reference and instances running in another
+ * time zone. References in any other format get a window covering every valid timestamp.
+ *
+ * @param from The inclusive lower bound.
+ * @param to   The inclusive upper bound.
+ */
+public record PlacementWindow(LocalDateTime from, LocalDateTime to) {
+
+    static final Duration SLACK = Duration.ofDays(1);
+
+    // The range of a MySQL DATETIME column
+    static final PlacementWindow UNBOUNDED = new PlacementWindow(
+            LocalDateTime.of(1000, 1, 1, 0, 0), LocalDateTime.of(9999, 12, 31, 23, 59, 59));
+
+    /**
+     * @param orderReference The reference of the order.
+     * @return The window the order's placement timestamp falls in.
+     */
+    public static PlacementWindow ofReference(String orderReference) {
+        OptionalLong generatedAtMillis = OrderReferenceGenerator.generatedAtMillis(orderReference);
+        if (generatedAtMillis.isEmpty()) {
+            return UNBOUNDED;
+        }
+        LocalDateTime generatedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(generatedAtMillis.getAsLong()),
+                ZoneId.systemDefault());
+        return new PlacementWindow(generatedAt.minus(SLACK), generatedAt.plus(SLACK));
+    }
+}
@@ -0,0 +1,84 @@
+package com.zerobeta.assignment.ordermanagement.config;
+
+import com.zerobeta.assignment.ordermanagement.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class BoundedPasswordEncoderTest {
+
+    @Mock
+    private PasswordEncoder delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 2, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        encoder.close();
+    }
+
+    @Test
+    void matches_RunsOnPool() {
+        when(delegate.matches("secret", "hash")).thenAnswer(invocation -> {
+            assertTrue(Thread.currentThread().getName().startsWith("password-encoder-"));
+            return true;
+        });
+
+        assertTrue(encoder.matches("secret", "hash"));
+        assertEquals(1, meterRegistry.get("auth.password.pool.wait").timer().count());
+    }
+
+    @Test
+    void encode_PropagatesDelegateException() {
+        when(delegate.encode("secret")).thenThrow(new IllegalArgumentException("bad"));
+
+        assertThrows(IllegalArgumentException.class, () -> encoder.encode("secret"));
+    }
+
+    @Test
+    void matches_ShedsLoadWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.matches("slow", "hash")).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return true;
+        });
+        when(delegate.matches("queued", "hash")).thenReturn(false);
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("slow", "hash"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("queued", "hash"));
+        while (meterRegistry.get("auth.password.pool.queue.depth").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        ServiceOverloadedException exception = assertThrows(ServiceOverloadedException.class,
+                () -> encoder.matches("rejected", "hash"));
+        assertEquals(2, exception.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("auth.password.pool.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertFalse(queued.get(5, TimeUnit.SECONDS));
+    }
+}
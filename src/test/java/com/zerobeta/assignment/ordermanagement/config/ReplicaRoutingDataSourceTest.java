@@ -0,0 +1,167 @@
+package com.zerobeta.assignment.ordermanagement.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private static final long USER_ID = 7L;
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private ResultSet replicaStatus;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RecentWriters recentWriters;
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        recentWriters = new RecentWriters(10);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(replicaConnection.isValid(anyInt())).thenReturn(true);
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SHOW REPLICA STATUS")).thenReturn(replicaStatus);
+        when(replicaStatus.next()).thenReturn(true);
+        when(replicaStatus.getLong("Seconds_Behind_Source")).thenReturn(1L);
+
+        dataSource = replicaRouting(true);
+        dataSource.checkReplicas();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser("user@example.com", USER_ID, Instant.now().plusSeconds(60)), null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void readOnlyTransaction_UsesReplica() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(replicaConnection, dataSource.getConnection());
+        assertEquals(1.0, meterRegistry.get("datasource.reads").tag("target", "replica").counter().count());
+    }
+
+    @Test
+    void readWriteTransaction_UsesPrimaryAndStartsReadYourWritesWindowOnCommit() throws SQLException {
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertFalse(recentWriters.wroteRecently(USER_ID));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertTrue(recentWriters.wroteRecently(USER_ID));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertEquals(1.0, meterRegistry.get("datasource.reads").tag("reason", "recent-write").counter().count());
+    }
+
+    @Test
+    void readOnlyTransaction_WithoutSignedInUser_UsesPrimary() throws SQLException {
+        SecurityContextHolder.clearContext();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void checkReplicas_TakesLaggingReplicaOutOfRotation() throws SQLException {
+        when(replicaStatus.getLong("Seconds_Behind_Source")).thenReturn(30L);
+        dataSource.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertEquals(Map.of("replica-1", false), dataSource.replicaStates());
+        assertEquals(1.0, meterRegistry.get("datasource.reads").tag("reason", "no-healthy-replica").counter().count());
+
+        when(replicaStatus.getLong("Seconds_Behind_Source")).thenReturn(0L);
+        dataSource.checkReplicas();
+        assertSame(replicaConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void checkReplicas_TakesReplicaOutOfRotationWhenStatusCannotBeRead() throws SQLException {
+        when(statement.executeQuery("SHOW REPLICA STATUS"))
+                .thenThrow(new SQLException("Access denied; you need the REPLICATION CLIENT privilege"));
+        dataSource.checkReplicas();
+
+        assertEquals(Map.of("replica-1", false), dataSource.replicaStates());
+    }
+
+    @Test
+    void checkReplicas_TakesServerWithoutReplicationStatusOutOfRotation() throws SQLException {
+        when(replicaStatus.next()).thenReturn(false);
+        dataSource.checkReplicas();
+
+        assertEquals(Map.of("replica-1", false), dataSource.replicaStates());
+    }
+
+    @Test
+    void checkReplicas_TreatsStandInDatabaseAsHealthyWithoutLagCheck() throws SQLException {
+        when(statement.executeQuery("SHOW REPLICA STATUS")).thenThrow(new SQLException("Access denied"));
+        ReplicaRoutingDataSource standIn = replicaRouting(false);
+        standIn.checkReplicas();
+
+        assertEquals(Map.of("replica-1", true), standIn.replicaStates());
+    }
+
+    @Test
+    void getConnection_FallsBackToPrimaryWhenReplicaIsUnreachable() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertEquals(Map.of("replica-1", false), dataSource.replicaStates());
+        assertEquals(0.0, meterRegistry.get("datasource.replica.healthy").tag("replica", "replica-1").gauge().value());
+    }
+
+    private ReplicaRoutingDataSource replicaRouting(boolean lagCheck) {
+        return new ReplicaRoutingDataSource(primary, Map.of("replica-1", replica), recentWriters, lagCheck, 5, meterRegistry);
+    }
+}
@@ -0,0 +1,121 @@
+package com.zerobeta.assignment.ordermanagement.job;
+
+import com.zerobeta.assignment.ordermanagement.dto.DispatchCandidateDTO;
+import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+import com.zerobeta.assignment.ordermanagement.repository.OutboxEventRepository;
+import com.zerobeta.assignment.ordermanagement.service.OrderMetrics;
+import com.zerobeta.assignment.ordermanagement.store.OrderStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DispatchOrderTest {
+
+    private static final LocalDateTime SINCE = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Mock
+    private OrderStore orderStore;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderMetrics orderMetrics;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        orderMetrics = new OrderMetrics(meterRegistry);
+    }
+
+    @Test
+    void dispatchOrders_NoNewOrders() {
+        when(orderStore.findOldestPlacementByStatus(OrderStatus.NEW)).thenReturn(null);
+
+        new DispatchOrder(orderStore, outboxEventRepository, orderMetrics, transactionManager, 3, 1).dispatchOrders();
+
+        verify(orderStore, never()).findMinIdByStatus(any(), any());
+        verify(orderStore, never()).updateOrderStatusByIds(any(), any(), any(), any());
+        verify(transactionManager, never()).getTransaction(any());
+        assertEquals(1, meterRegistry.get("orders.dispatch.duration").timer().count());
+        assertEquals(0.0, meterRegistry.get("orders.dispatch.rows").counter().count());
+    }
+
+    @Test
+    void dispatchOrders_CommitsEachChunkSeparately() {
+        when(orderStore.findOldestPlacementByStatus(OrderStatus.NEW)).thenReturn(SINCE);
+        when(orderStore.findMinIdByStatus(OrderStatus.NEW, SINCE)).thenReturn(1L);
+        when(orderStore.findMaxIdByStatus(OrderStatus.NEW, SINCE)).thenReturn(5L);
+        when(orderStore.findDispatchCandidates(eq(OrderStatus.NEW), eq(SINCE), eq(0L), eq(5L), any(Pageable.class)))
+                .thenReturn(List.of(candidate(1), candidate(2), candidate(3)));
+        when(orderStore.findDispatchCandidates(eq(OrderStatus.NEW), eq(SINCE), eq(3L), eq(5L), any(Pageable.class)))
+                .thenReturn(List.of(candidate(4), candidate(5)));
+        when(orderStore.updateOrderStatusByIds(any(), eq(SINCE), eq(OrderStatus.NEW), eq(OrderStatus.DISPATCHED)))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        new DispatchOrder(orderStore, outboxEventRepository, orderMetrics, transactionManager, 3, 1).dispatchOrders();
+
+        verify(orderStore).updateOrderStatusByIds(List.of(1L, 2L, 3L), SINCE, OrderStatus.NEW, OrderStatus.DISPATCHED);
+        verify(orderStore).updateOrderStatusByIds(List.of(4L, 5L), SINCE, OrderStatus.NEW, OrderStatus.DISPATCHED);
+        verify(outboxEventRepository, times(2)).saveAll(anyList());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void dispatchOrders_SplitsIdRangeAcrossWorkers() {
+        when(orderStore.findOldestPlacementByStatus(OrderStatus.NEW)).thenReturn(SINCE);
+        when(orderStore.findMinIdByStatus(OrderStatus.NEW, SINCE)).thenReturn(1L);
+        when(orderStore.findMaxIdByStatus(OrderStatus.NEW, SINCE)).thenReturn(10L);
+        when(orderStore.findDispatchCandidates(eq(OrderStatus.NEW), eq(SINCE), anyLong(), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        new DispatchOrder(orderStore, outboxEventRepository, orderMetrics, transactionManager, 100, 2).dispatchOrders();
+
+        verify(orderStore).findDispatchCandidates(eq(OrderStatus.NEW), eq(SINCE), eq(0L), eq(5L), any(Pageable.class));
+        verify(orderStore).findDispatchCandidates(eq(OrderStatus.NEW), eq(SINCE), eq(5L), eq(10L), any(Pageable.class));
+    }
+
+    @Test
+    void dispatchOrders_RollsBackAndRetriesConflictingChunk() {
+        SimpleTransactionStatus conflicting = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(conflicting, new SimpleTransactionStatus());
+        when(orderStore.findOldestPlacementByStatus(OrderStatus.NEW)).thenReturn(SINCE);
+        when(orderStore.findMinIdByStatus(OrderStatus.NEW, SINCE)).thenReturn(1L);
+        when(orderStore.findMaxIdByStatus(OrderStatus.NEW, SINCE)).thenReturn(2L);
+        when(orderStore.findDispatchCandidates(eq(OrderStatus.NEW), eq(SINCE), eq(0L), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(candidate(1), candidate(2)));
+        when(orderStore.updateOrderStatusByIds(any(), eq(SINCE), eq(OrderStatus.NEW), eq(OrderStatus.DISPATCHED)))
+                .thenReturn(1, 2);
+
+        new DispatchOrder(orderStore, outboxEventRepository, orderMetrics, transactionManager, 3, 1).dispatchOrders();
+
+        assertTrue(conflicting.isRollbackOnly());
+        verify(orderStore, times(2)).updateOrderStatusByIds(List.of(1L, 2L), SINCE, OrderStatus.NEW, OrderStatus.DISPATCHED);
+        verify(outboxEventRepository, times(1)).saveAll(anyList());
+        assertEquals(1.0, meterRegistry.get("orders.dispatch.conflicts").counter().count());
+    }
+
+    private static DispatchCandidateDTO candidate(long id) {
+        return new DispatchCandidateDTO(id, "ORD" + id);
+    }
+}
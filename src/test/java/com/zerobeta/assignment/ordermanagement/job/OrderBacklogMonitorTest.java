@@ -0,0 +1,54 @@
+package com.zerobeta.assignment.ordermanagement.job;
+
+import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+import com.zerobeta.assignment.ordermanagement.store.OrderStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+class OrderBacklogMonitorTest {
+
+    @Mock
+    private OrderStore orderStore;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderBacklogMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new OrderBacklogMonitor(orderStore, meterRegistry);
+    }
+
+    @Test
+    void refresh_PublishesBacklogSizeAndAge() {
+        when(orderStore.countByStatus(OrderStatus.NEW)).thenReturn(42L);
+        when(orderStore.findOldestPlacementByStatus(OrderStatus.NEW)).thenReturn(LocalDateTime.now().minusMinutes(10));
+
+        monitor.refresh();
+
+        assertEquals(42.0, meterRegistry.get("orders.backlog.count").gauge().value());
+        double age = meterRegistry.get("orders.backlog.oldest.age").gauge().value();
+        assertTrue(age >= 600 && age < 660);
+    }
+
+    @Test
+    void refresh_EmptyBacklog() {
+        when(orderStore.countByStatus(OrderStatus.NEW)).thenReturn(0L);
+        when(orderStore.findOldestPlacementByStatus(OrderStatus.NEW)).thenReturn(null);
+
+        monitor.refresh();
+
+        assertEquals(0.0, meterRegistry.get("orders.backlog.count").gauge().value());
+        assertEquals(0.0, meterRegistry.get("orders.backlog.oldest.age").gauge().value());
+    }
+}
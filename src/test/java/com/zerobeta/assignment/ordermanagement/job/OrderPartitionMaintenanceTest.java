@@ -0,0 +1,205 @@
+package com.zerobeta.assignment.ordermanagement.job;
+
+import com.zerobeta.assignment.ordermanagement.entity.Order;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class OrderPartitionMaintenanceTest {
+
+    private static final YearMonth CURRENT_MONTH = YearMonth.now();
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(jdbcTemplate.queryForObject("SELECT GET_LOCK(?, 0)", Integer.class, "order_partition_maintenance")).thenReturn(1);
+    }
+
+    @Test
+    void partitionName_UsesYearAndMonth() {
+        assertEquals("p202603", OrderPartitionMaintenance.partitionName(YearMonth.of(2026, 3)));
+        assertEquals(YearMonth.of(2026, 3), OrderPartitionMaintenance.monthOf("p202603"));
+    }
+
+    @Test
+    void constructor_RejectsUnknownExpiryMode() {
+        assertThrows(IllegalArgumentException.class, () -> maintenance(3, 0, "delete"));
+    }
+
+    @Test
+    void maintainPartitions_SkipsUnpartitionedTable() {
+        givenPartitions("p_history");
+
+        maintenance(3, 0, "drop").maintainPartitions();
+
+        verify(jdbcTemplate, never()).queryForObject(eq("SELECT GET_LOCK(?, 0)"), eq(Integer.class), any());
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void maintainPartitions_SkipsWhenLockIsHeld() {
+        givenPartitions("p_history", "p_future");
+        when(jdbcTemplate.queryForObject("SELECT GET_LOCK(?, 0)", Integer.class, "order_partition_maintenance")).thenReturn(0);
+
+        maintenance(3, 0, "drop").maintainPartitions();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate, never()).queryForObject(eq("SELECT RELEASE_LOCK(?)"), eq(Integer.class), any());
+    }
+
+    @Test
+    void maintainPartitions_SplitsMissingMonthsOffFuturePartition() {
+        givenPartitions("p_history", name(0), "p_future");
+
+        maintenance(2, 0, "drop").maintainPartitions();
+
+        verify(jdbcTemplate).execute("ALTER TABLE orders REORGANIZE PARTITION p_future INTO (" +
+                "PARTITION " + name(1) + " VALUES LESS THAN ('" + CURRENT_MONTH.plusMonths(2).atDay(1) + " 00:00:00'), " +
+                "PARTITION " + name(2) + " VALUES LESS THAN ('" + CURRENT_MONTH.plusMonths(3).atDay(1) + " 00:00:00'), " +
+                "PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+        verify(jdbcTemplate).queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, "order_partition_maintenance");
+    }
+
+    @Test
+    void maintainPartitions_StartsAtCurrentMonthWithoutMonthPartitions() {
+        givenPartitions("p_history", "p_future");
+
+        maintenance(0, 0, "drop").maintainPartitions();
+
+        verify(jdbcTemplate).execute("ALTER TABLE orders REORGANIZE PARTITION p_future INTO (" +
+                "PARTITION " + name(0) + " VALUES LESS THAN ('" + CURRENT_MONTH.plusMonths(1).atDay(1) + " 00:00:00'), " +
+                "PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+    }
+
+    @Test
+    void maintainPartitions_CreatesNothingWhenMonthsAreCovered() {
+        givenPartitions("p_history", name(0), name(1), "p_future");
+
+        maintenance(1, 0, "drop").maintainPartitions();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void maintainPartitions_RemovesExpiredMonthsUntilOneHoldsNewOrders() {
+        givenPartitions("p_history", name(-5), name(-4), name(-3), name(0), "p_future");
+        givenNewOrders(name(-5), 0);
+        givenNewOrders(name(-4), 3);
+        when(jdbcTemplate.queryForObject(contains("information_schema.PARTITIONS"), eq(Long.class), eq(expiring(-5)))).thenReturn(1L);
+
+        maintenance(0, 2, "drop").maintainPartitions();
+
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute("CREATE TABLE " + expiring(-5) + " LIKE orders");
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE " + expiring(-5) + " REMOVE PARTITIONING");
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE orders EXCHANGE PARTITION " + name(-5) + " WITH TABLE " + expiring(-5));
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE orders DROP PARTITION " + name(-5));
+        inOrder.verify(jdbcTemplate).update(startsWith("INSERT INTO user_order_counts"));
+        inOrder.verify(jdbcTemplate).update(startsWith("INSERT INTO order_partition_removals"), eq(name(-5)));
+        inOrder.verify(jdbcTemplate).execute("DROP TABLE " + expiring(-5));
+        verify(jdbcTemplate, never()).execute(contains(name(-4)));
+        verify(jdbcTemplate, never()).execute(contains(name(-3)));
+        verify(cache).evictEntityData(Order.class);
+        verify(cache).evictNaturalIdData(Order.class);
+    }
+
+    @Test
+    void maintainPartitions_ArchivesExpiredMonth() {
+        givenPartitions("p_history", name(-3), name(0), "p_future");
+
+        maintenance(0, 2, "archive").maintainPartitions();
+
+        verify(jdbcTemplate).execute("ALTER TABLE orders DROP PARTITION " + name(-3));
+        verify(jdbcTemplate).execute("RENAME TABLE " + expiring(-3) + " TO orders_archive_" + name(-3));
+        verify(jdbcTemplate, never()).execute("DROP TABLE " + expiring(-3));
+    }
+
+    @Test
+    void maintainPartitions_ResumesRemovalWithoutAdjustingCountsTwice() {
+        givenPartitions("p_history", name(0), "p_future");
+        when(jdbcTemplate.queryForList(contains("orders\\_expiring"), eq(String.class))).thenReturn(List.of(expiring(-3)));
+        when(jdbcTemplate.queryForObject(contains("order_partition_removals"), eq(Long.class), eq(name(-3)))).thenReturn(1L);
+
+        maintenance(0, 2, "drop").maintainPartitions();
+
+        verify(jdbcTemplate, never()).execute(startsWith("ALTER TABLE orders EXCHANGE"));
+        verify(jdbcTemplate, never()).update(startsWith("INSERT INTO user_order_counts"));
+        verify(jdbcTemplate).execute("DROP TABLE " + expiring(-3));
+    }
+
+    @Test
+    void maintainPartitions_DoesNotExchangeIntoTableHoldingOrders() {
+        givenPartitions("p_history", name(-3), name(0), "p_future");
+        when(jdbcTemplate.queryForObject(contains("information_schema.TABLES"), eq(Long.class), eq(expiring(-3)))).thenReturn(1L);
+        when(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + expiring(-3) + ")", Boolean.class)).thenReturn(true);
+
+        maintenance(0, 2, "drop").maintainPartitions();
+
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE"));
+        verify(jdbcTemplate, never()).execute(startsWith("ALTER TABLE orders EXCHANGE"));
+        verify(jdbcTemplate).execute("ALTER TABLE orders DROP PARTITION " + name(-3));
+        verify(jdbcTemplate).update(startsWith("INSERT INTO user_order_counts"));
+    }
+
+    private OrderPartitionMaintenance maintenance(int monthsAhead, int retentionMonths, String expiryMode) {
+        return new OrderPartitionMaintenance(jdbcTemplate, entityManagerFactory, transactionManager,
+                monthsAhead, retentionMonths, expiryMode);
+    }
+
+    private void givenPartitions(String... partitions) {
+        when(jdbcTemplate.queryForList(contains("information_schema.PARTITIONS"), eq(String.class)))
+                .thenReturn(new ArrayList<>(List.of(partitions)));
+    }
+
+    private void givenNewOrders(String partition, long count) {
+        when(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders PARTITION (" + partition + ") WHERE status = 'NEW'", Long.class))
+                .thenReturn(count);
+    }
+
+    private static String name(int monthsFromNow) {
+        return OrderPartitionMaintenance.partitionName(CURRENT_MONTH.plusMonths(monthsFromNow));
+    }
+
+    private static String expiring(int monthsFromNow) {
+        return OrderPartitionMaintenance.EXPIRING_PREFIX + name(monthsFromNow);
+    }
+}
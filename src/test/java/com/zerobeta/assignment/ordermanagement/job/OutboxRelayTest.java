@@ -0,0 +1,108 @@
+package com.zerobeta.assignment.ordermanagement.job;
+
+import com.zerobeta.assignment.ordermanagement.entity.OutboxEvent;
+import com.zerobeta.assignment.ordermanagement.enums.OrderEventType;
+import com.zerobeta.assignment.ordermanagement.repository.OutboxEventRepository;
+import com.zerobeta.assignment.ordermanagement.service.OrderEventSink;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OrderEventSink orderEventSink;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        outboxRelay = new OutboxRelay(outboxEventRepository, orderEventSink, transactionManager, 2, 3, 24);
+    }
+
+    @Test
+    void relayEvents_EmptyOutbox() {
+        when(outboxEventRepository.findUnpublished(PageRequest.of(0, 2))).thenReturn(List.of());
+
+        outboxRelay.relayEvents();
+
+        verify(orderEventSink, never()).publish(anyList());
+        verify(outboxEventRepository, never()).markPublished(anyList(), any());
+    }
+
+    @Test
+    void relayEvents_DrainsInBatchesUntilOneIsShort() {
+        List<OutboxEvent> first = List.of(event(1), event(2));
+        List<OutboxEvent> second = List.of(event(3), event(4));
+        List<OutboxEvent> last = List.of(event(5));
+        when(outboxEventRepository.findUnpublished(PageRequest.of(0, 2))).thenReturn(first, second, last);
+
+        outboxRelay.relayEvents();
+
+        InOrder inOrder = inOrder(orderEventSink, outboxEventRepository);
+        inOrder.verify(orderEventSink).publish(first);
+        inOrder.verify(outboxEventRepository).markPublished(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        inOrder.verify(orderEventSink).publish(second);
+        inOrder.verify(outboxEventRepository).markPublished(eq(List.of(3L, 4L)), any(LocalDateTime.class));
+        inOrder.verify(orderEventSink).publish(last);
+        inOrder.verify(outboxEventRepository).markPublished(eq(List.of(5L)), any(LocalDateTime.class));
+        verify(outboxEventRepository, times(3)).findUnpublished(any());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void relayEvents_StopsAfterMaxBatches() {
+        when(outboxEventRepository.findUnpublished(PageRequest.of(0, 2)))
+                .thenReturn(List.of(event(1), event(2)), List.of(event(3), event(4)), List.of(event(5), event(6)),
+                        List.of(event(7), event(8)));
+
+        outboxRelay.relayEvents();
+
+        verify(outboxEventRepository, times(3)).findUnpublished(any());
+        verify(orderEventSink, times(3)).publish(anyList());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void relayEvents_DoesNotMarkWhenSinkFails() {
+        List<OutboxEvent> events = List.of(event(1), event(2));
+        when(outboxEventRepository.findUnpublished(PageRequest.of(0, 2))).thenReturn(events);
+        doThrow(new UncheckedIOException(new IOException("disk full"))).when(orderEventSink).publish(events);
+
+        assertThrows(UncheckedIOException.class, () -> outboxRelay.relayEvents());
+
+        verify(outboxEventRepository, never()).markPublished(anyList(), any());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    private static OutboxEvent event(long id) {
+        OutboxEvent event = new OutboxEvent("ORD" + id, OrderEventType.ORDER_DISPATCHED);
+        event.setId(id);
+        return event;
+    }
+}
@@ -0,0 +1,57 @@
+package com.zerobeta.assignment.ordermanagement.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.zerobeta.assignment.ordermanagement.entity.OutboxEvent;
+import com.zerobeta.assignment.ordermanagement.enums.OrderEventType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileOrderEventSinkTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void publish_AppendsOneJsonLinePerEvent() throws IOException {
+        Path file = directory.resolve("events.ndjson");
+        FileOrderEventSink sink = new FileOrderEventSink(file, objectMapper);
+
+        sink.publish(List.of(event(1, "ORD1", OrderEventType.ORDER_DISPATCHED), event(2, "ORD2", OrderEventType.ORDER_CANCELLED)));
+        sink.publish(List.of(event(3, "ORD3", OrderEventType.ORDER_DISPATCHED)));
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(3, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals(1, first.get("id").asLong());
+        assertEquals("ORD1", first.get("orderReference").asText());
+        assertEquals("ORDER_DISPATCHED", first.get("eventType").asText());
+        assertEquals("ORDER_CANCELLED", objectMapper.readTree(lines.get(1)).get("eventType").asText());
+        assertEquals(3, objectMapper.readTree(lines.get(2)).get("id").asLong());
+    }
+
+    @Test
+    void publish_ThrowsWhenFileCannotBeWritten() {
+        FileOrderEventSink sink = new FileOrderEventSink(directory.resolve("missing").resolve("events.ndjson"), objectMapper);
+
+        assertThrows(UncheckedIOException.class,
+                () -> sink.publish(List.of(event(1, "ORD1", OrderEventType.ORDER_DISPATCHED))));
+    }
+
+    private static OutboxEvent event(long id, String orderReference, OrderEventType eventType) {
+        OutboxEvent event = new OutboxEvent(orderReference, eventType);
+        event.setId(id);
+        return event;
+    }
+}
@@ -0,0 +1,159 @@
+package com.zerobeta.assignment.ordermanagement.service;
+
+import com.zerobeta.assignment.ordermanagement.dto.OrderRequestDTO;
+import com.zerobeta.assignment.ordermanagement.entity.IdempotencyRecord;
+import com.zerobeta.assignment.ordermanagement.entity.Order;
+import com.zerobeta.assignment.ordermanagement.exception.IdempotencyConflictException;
+import com.zerobeta.assignment.ordermanagement.repository.IdempotencyRecordRepository;
+import com.zerobeta.assignment.ordermanagement.store.OrderStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class IdempotentOrderServiceTest {
+
+    private static final String EMAIL = "user@example.com";
+    private static final String KEY = "3f2c9a7e-retry-key";
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private OrderStore orderStore;
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotentOrderService idempotentOrderService;
+    private OrderRequestDTO orderRequest;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotentOrderService = new IdempotentOrderService(orderService, orderStore, idempotencyRecordRepository,
+                userCache, transactionManager, new SimpleMeterRegistry(), 100, 24, 5000);
+        orderRequest = new OrderRequestDTO("Test Item", 2, "Point Pedro");
+        order = new Order();
+        order.setOrderReference("ORD0000000000001");
+        when(idempotencyRecordRepository.findById(any())).thenReturn(Optional.empty());
+        when(orderStore.findByOrderReference(order.getOrderReference())).thenReturn(Optional.of(order));
+    }
+
+    @Test
+    void placeOrder_ReplaysCompletedKeyWithoutPlacingAgain() {
+        when(orderService.placeOrder(EMAIL, orderRequest)).thenReturn(order);
+
+        IdempotentOrderService.Result first = idempotentOrderService.placeOrder(EMAIL, 7L, KEY, orderRequest);
+        IdempotentOrderService.Result retry = idempotentOrderService.placeOrder(EMAIL, 7L, KEY, orderRequest);
+
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertSame(order, retry.order());
+        verify(orderService, times(1)).placeOrder(EMAIL, orderRequest);
+        verify(idempotencyRecordRepository, times(1)).saveAndFlush(any(IdempotencyRecord.class));
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void placeOrder_ReplaysKeyStoredInDatabase() {
+        IdempotencyRecord.Key key = new IdempotencyRecord.Key(7L, KEY);
+        IdempotencyRecord stored = new IdempotencyRecord(key, IdempotentOrderService.hash(orderRequest), order.getOrderReference());
+        when(idempotencyRecordRepository.findById(key)).thenReturn(Optional.of(stored));
+
+        IdempotentOrderService.Result result = idempotentOrderService.placeOrder(EMAIL, 7L, KEY, orderRequest);
+
+        assertTrue(result.replayed());
+        assertSame(order, result.order());
+        verify(orderService, never()).placeOrder(any(), any());
+    }
+
+    @Test
+    void placeOrder_RejectsKeyReusedWithDifferentRequest() {
+        when(orderService.placeOrder(EMAIL, orderRequest)).thenReturn(order);
+        idempotentOrderService.placeOrder(EMAIL, 7L, KEY, orderRequest);
+
+        OrderRequestDTO otherRequest = new OrderRequestDTO("Other Item", 1, "Jaffna");
+        assertThrows(IdempotencyConflictException.class, () -> idempotentOrderService.placeOrder(EMAIL, 7L, KEY, otherRequest));
+        verify(orderService, times(1)).placeOrder(any(), any());
+    }
+
+    @Test
+    void placeOrder_KeysAreScopedPerUser() {
+        when(orderService.placeOrder(EMAIL, orderRequest)).thenReturn(order);
+
+        idempotentOrderService.placeOrder(EMAIL, 7L, KEY, orderRequest);
+        IdempotentOrderService.Result otherUser = idempotentOrderService.placeOrder(EMAIL, 8L, KEY, orderRequest);
+
+        assertFalse(otherUser.replayed());
+        verify(orderService, times(2)).placeOrder(EMAIL, orderRequest);
+    }
+
+    @Test
+    void placeOrder_CoalescesConcurrentDuplicates() throws Exception {
+        CountDownLatch placing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.placeOrder(EMAIL, orderRequest)).thenAnswer(invocation -> {
+            placing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return order;
+        });
+
+        CompletableFuture<IdempotentOrderService.Result> first =
+                CompletableFuture.supplyAsync(() -> idempotentOrderService.placeOrder(EMAIL, 7L, KEY, orderRequest));
+        assertTrue(placing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<IdempotentOrderService.Result> duplicate =
+                CompletableFuture.supplyAsync(() -> idempotentOrderService.placeOrder(EMAIL, 7L, KEY, orderRequest));
+        release.countDown();
+
+        assertFalse(first.get(5, TimeUnit.SECONDS).replayed());
+        IdempotentOrderService.Result coalesced = duplicate.get(5, TimeUnit.SECONDS);
+        assertTrue(coalesced.replayed());
+        assertSame(order, coalesced.order());
+        verify(orderService, times(1)).placeOrder(EMAIL, orderRequest);
+    }
+
+    @Test
+    void placeOrder_ReplaysWinnerOfCrossInstanceRace() {
+        IdempotencyRecord.Key key = new IdempotencyRecord.Key(7L, KEY);
+        Order lostOrder = new Order();
+        lostOrder.setOrderReference("ORD0000000000002");
+        IdempotencyRecord winner = new IdempotencyRecord(key, IdempotentOrderService.hash(orderRequest), order.getOrderReference());
+        when(orderService.placeOrder(EMAIL, orderRequest)).thenReturn(lostOrder);
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+        when(idempotencyRecordRepository.findById(key)).thenReturn(Optional.empty(), Optional.of(winner));
+
+        IdempotentOrderService.Result result = idempotentOrderService.placeOrder(EMAIL, 7L, KEY, orderRequest);
+
+        assertTrue(result.replayed());
+        assertSame(order, result.order());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void placeOrder_InvalidKey() {
+        assertThrows(IllegalArgumentException.class, () -> idempotentOrderService.placeOrder(EMAIL, 7L, " ", orderRequest));
+        assertThrows(IllegalArgumentException.class,
+                () -> idempotentOrderService.placeOrder(EMAIL, 7L, "k".repeat(256), orderRequest));
+    }
+}
@@ -1,10 +1,15 @@
 package com.zerobeta.assignment.ordermanagement.service;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import javax.crypto.spec.SecretKeySpec;
 import java.lang.reflect.Field;
 import java.util.Date;
 import java.util.HashMap;
@@ -20,7 +25,12 @@ class JwtServiceTest {
 
     @BeforeEach
     public void setUp() throws NoSuchFieldException, IllegalAccessException {
-        jwtService = new JwtService();
+        jwtService = createJwtService(secretKey, "current", "");
+    }
+
+    private JwtService createJwtService(String secretKey, String secretKeyId, String retiredKeys)
+            throws NoSuchFieldException, IllegalAccessException {
+        JwtService jwtService = new JwtService(new SimpleMeterRegistry());
 
         // Use reflection to access the private secretKey field and set the value
         Field secretKeyField = JwtService.class.getDeclaredField("secretKey");
@@ -31,6 +41,17 @@ class JwtServiceTest {
         Field expirationField = JwtService.class.getDeclaredField("jwtExpirationTime");
         expirationField.setAccessible(true);
         expirationField.set(jwtService, jwtExpirationTime);
+
+        Field keyIdField = JwtService.class.getDeclaredField("secretKeyId");
+        keyIdField.setAccessible(true);
+        keyIdField.set(jwtService, secretKeyId);
+
+        Field retiredKeysField = JwtService.class.getDeclaredField("retiredKeys");
+        retiredKeysField.setAccessible(true);
+        retiredKeysField.set(jwtService, retiredKeys);
+
+        jwtService.init();
+        return jwtService;
     }
 
     @Test
@@ -52,6 +73,15 @@ class JwtServiceTest {
         assertEquals(email, extractedEmail, "Extracted email should match the original email");
     }
 
+    @Test
+    void testGenerateToken_EmbedsUserId() {
+        String token = jwtService.generateToken("user@example.com", 42L);
+
+        Claims claims = jwtService.verifyToken(token);
+
+        assertEquals(42L, claims.get(JwtService.USER_ID_CLAIM, Long.class));
+    }
+
     @Test
     void testIsTokenExpired_False() {
         String email = "user@example.com";
@@ -109,4 +139,49 @@ class JwtServiceTest {
         assertNotNull(expiration, "Expiration date should not be null");
         assertTrue(expiration.after(new Date()), "Expiration date should be in the future");
     }
+
+    @Test
+    void testVerifyToken_ReturnsCachedClaimsForRepeatedToken() {
+        String token = jwtService.generateToken("user@example.com");
+
+        Claims first = jwtService.verifyToken(token);
+        Claims second = jwtService.verifyToken(token);
+
+        assertEquals("user@example.com", first.getSubject());
+        assertSame(first, second, "A verified token should be served from the cache");
+    }
+
+    @Test
+    void testVerifyToken_ExpiredTokenIsRejected() {
+        Map<String, Object> claims = new HashMap<>();
+        String expiredToken = Jwts.builder()
+                .setClaims(claims)
+                .setSubject("test@example.com")
+                .setIssuedAt(new Date(System.currentTimeMillis() - 2000))
+                .setExpiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(new SecretKeySpec(secretKey.getBytes(), SignatureAlgorithm.HS256.getJcaName()), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.verifyToken(expiredToken));
+        assertThrows(ExpiredJwtException.class, () -> jwtService.verifyToken(expiredToken));
+    }
+
+    @Test
+    void testVerifyToken_AcceptsTokenSignedWithRetiredKey() throws Exception {
+        String oldSecret = "b2xkLXNlY3JldC1rZXktdGhhdC1pcy1sb25nLWVub3VnaC1mb3ItaHMyNTYtc2lnbmluZw";
+        JwtService previousService = createJwtService(oldSecret, "previous", "");
+        String token = previousService.generateToken("user@example.com");
+
+        JwtService rotatedService = createJwtService(secretKey, "current", "previous=" + oldSecret);
+
+        assertEquals("user@example.com", rotatedService.verifyToken(token).getSubject());
+    }
+
+    @Test
+    void testVerifyToken_RejectsUnknownKeyId() throws Exception {
+        String otherSecret = "b3RoZXItc2VjcmV0LWtleS10aGF0LWlzLWxvbmctZW5vdWdoLWZvci1oczI1Ni1zaWduaW5n";
+        String token = createJwtService(otherSecret, "unknown", "").generateToken("user@example.com");
+
+        assertThrows(JwtException.class, () -> jwtService.verifyToken(token));
+    }
 }
@@ -0,0 +1,106 @@
+package com.zerobeta.assignment.ordermanagement.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.zerobeta.assignment.ordermanagement.dto.OrderHistoryItemDTO;
+import com.zerobeta.assignment.ordermanagement.enums.ExportFormat;
+import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+import com.zerobeta.assignment.ordermanagement.exception.EntityNotFoundException;
+import com.zerobeta.assignment.ordermanagement.store.OrderStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OrderExportServiceTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    @Mock
+    private OrderStore orderStore;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderExportService orderExportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+        orderExportService = new OrderExportService(orderStore, userCache, transactionManager, objectMapper);
+    }
+
+    @Test
+    void exportOrders_Ndjson() {
+        Stream<OrderHistoryItemDTO> rows = Stream.of(row(1L, "Laptop"), row(2L, "Mouse"));
+        when(orderStore.streamForExport(7L, FROM, TO)).thenReturn(rows);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = orderExportService.exportOrders("user@example.com", 7L, FROM, TO, ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, exported);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,\"orderReference\":\"ORD1\""));
+        assertTrue(lines[1].contains("\"itemName\":\"Mouse\""));
+        verify(transactionManager, times(1)).commit(any());
+        verify(userCache, never()).findByEmail(any());
+    }
+
+    @Test
+    void exportOrders_CsvQuotesFields() {
+        when(userCache.findByEmail("user@example.com"))
+                .thenReturn(Optional.of(new UserCache.CachedUser(7L, "user@example.com", "encodedPassword")));
+        when(orderStore.streamForExport(7L, FROM, TO)).thenReturn(Stream.of(row(1L, "Desk, \"oak\"")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = orderExportService.exportOrders("user@example.com", null, FROM, TO, ExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, exported);
+        assertEquals("id,orderReference,itemName,quantity,shippingAddress,status,placementTimestamp", lines[0]);
+        assertEquals("1,ORD1,\"Desk, \"\"oak\"\"\",2,\"Point Pedro, Jaffna\",NEW,2024-01-15T10:30", lines[1]);
+    }
+
+    @Test
+    void exportOrders_UserNotFound() {
+        when(userCache.findByEmail("nonexistent@example.com")).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> orderExportService.exportOrders("nonexistent@example.com", null,
+                FROM, TO, ExportFormat.CSV, new ByteArrayOutputStream()));
+        verify(orderStore, never()).streamForExport(any(), any(), any());
+    }
+
+    @Test
+    void exportOrders_InvalidRange() {
+        assertThrows(IllegalArgumentException.class, () -> orderExportService.exportOrders("user@example.com", 7L,
+                TO, FROM, ExportFormat.NDJSON, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void exportFormat_FromParameter() {
+        assertEquals(ExportFormat.CSV, ExportFormat.fromParameter("csv"));
+        assertThrows(IllegalArgumentException.class, () -> ExportFormat.fromParameter("xml"));
+    }
+
+    private OrderHistoryItemDTO row(Long id, String itemName) {
+        return new OrderHistoryItemDTO(id, "ORD" + id, itemName, 2, "Point Pedro, Jaffna", OrderStatus.NEW,
+                LocalDateTime.of(2024, 1, 15, 10, 30));
+    }
+}
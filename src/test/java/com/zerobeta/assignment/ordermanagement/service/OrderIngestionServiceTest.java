@@ -0,0 +1,202 @@
+package com.zerobeta.assignment.ordermanagement.service;
+
+import com.zerobeta.assignment.ordermanagement.config.RecentWriters;
+import com.zerobeta.assignment.ordermanagement.dto.OrderIngestionStatusDTO;
+import com.zerobeta.assignment.ordermanagement.dto.OrderRequestDTO;
+import com.zerobeta.assignment.ordermanagement.entity.Order;
+import com.zerobeta.assignment.ordermanagement.entity.User;
+import com.zerobeta.assignment.ordermanagement.enums.IngestionState;
+import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+import com.zerobeta.assignment.ordermanagement.exception.EntityNotFoundException;
+import com.zerobeta.assignment.ordermanagement.exception.FeatureDisabledException;
+import com.zerobeta.assignment.ordermanagement.exception.ServiceOverloadedException;
+import com.zerobeta.assignment.ordermanagement.repository.UserRepository;
+import com.zerobeta.assignment.ordermanagement.store.OrderStore;
+import com.zerobeta.assignment.ordermanagement.util.OrderReferenceGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class OrderIngestionServiceTest {
+
+    private static final String EMAIL = "user@example.com";
+
+    @Mock
+    private OrderStore orderStore;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RecentWriters recentWriters;
+    private OrderRequestDTO orderRequest;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        recentWriters = new RecentWriters(10);
+        orderRequest = new OrderRequestDTO("Test Item", 2, "Point Pedro");
+        User user = new User();
+        user.setId(7L);
+        when(userRepository.getReferenceById(7L)).thenReturn(user);
+    }
+
+    @Test
+    void accept_QueuesUntilGroupCommit() {
+        OrderIngestionService service = createService(true, 8, 10);
+
+        String first = service.accept(EMAIL, 7L, orderRequest);
+        String second = service.accept(EMAIL, 7L, orderRequest);
+
+        assertEquals(IngestionState.QUEUED, service.getStatus(EMAIL, 7L, first).state());
+        verify(orderStore, never()).insert(any());
+        assertFalse(recentWriters.wroteRecently(7L));
+
+        assertEquals(2, service.flush());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Order>> written = ArgumentCaptor.forClass(List.class);
+        verify(orderStore, times(1)).insert(written.capture());
+        assertEquals(List.of(first, second), written.getValue().stream().map(Order::getOrderReference).toList());
+        verify(transactionManager, times(1)).commit(any());
+        assertTrue(recentWriters.wroteRecently(7L));
+
+        when(orderStore.findStatusForUser(first, 7L)).thenReturn(Optional.of(OrderStatus.NEW));
+        OrderIngestionStatusDTO status = service.getStatus(EMAIL, 7L, first);
+        assertEquals(IngestionState.DURABLE, status.state());
+        assertEquals(OrderStatus.NEW, status.orderStatus());
+    }
+
+    @Test
+    void accept_RejectsWhenBufferIsFull() {
+        OrderIngestionService service = createService(true, 2, 10);
+        service.accept(EMAIL, 7L, orderRequest);
+        service.accept(EMAIL, 7L, orderRequest);
+
+        ServiceOverloadedException exception = assertThrows(ServiceOverloadedException.class,
+                () -> service.accept(EMAIL, 7L, orderRequest));
+
+        assertEquals(3, exception.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("orders.ingestion.rejected").counter().count());
+    }
+
+    @Test
+    void accept_DisabledByDefault() {
+        OrderIngestionService service = createService(false, 8, 10);
+
+        assertThrows(FeatureDisabledException.class, () -> service.accept(EMAIL, 7L, orderRequest));
+    }
+
+    @Test
+    void flush_IsolatesOrdersThatCannotBeWritten() {
+        OrderIngestionService service = createService(true, 8, 10);
+        String good = service.accept(EMAIL, 7L, orderRequest);
+        String bad = service.accept(EMAIL, 7L, orderRequest);
+        doAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            if (orders.stream().anyMatch(order -> order.getOrderReference().equals(bad))) {
+                throw new DataIntegrityViolationException("Cannot add or update a child row");
+            }
+            return null;
+        }).when(orderStore).insert(anyList());
+
+        service.flush();
+
+        verify(orderStore, times(3)).insert(anyList());
+        assertEquals(IngestionState.FAILED, service.getStatus(EMAIL, 7L, bad).state());
+        when(orderStore.findStatusForUser(good, 7L)).thenReturn(Optional.of(OrderStatus.NEW));
+        assertEquals(IngestionState.DURABLE, service.getStatus(EMAIL, 7L, good).state());
+    }
+
+    @Test
+    void flush_RetriesBatchAfterTransientFailure() {
+        OrderIngestionService service = createService(true, 8, 10);
+        String first = service.accept(EMAIL, 7L, orderRequest);
+        String second = service.accept(EMAIL, 7L, orderRequest);
+        when(transactionManager.getTransaction(any()))
+                .thenThrow(new CannotCreateTransactionException("Connection is not available"))
+                .thenReturn(new SimpleTransactionStatus());
+
+        assertEquals(2, service.flush());
+
+        verify(orderStore, never()).insert(anyList());
+        assertEquals(IngestionState.QUEUED, service.getStatus(EMAIL, 7L, first).state());
+        assertEquals(0.0, meterRegistry.get("orders.ingestion.failed").counter().count());
+
+        assertEquals(2, service.flush());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Order>> written = ArgumentCaptor.forClass(List.class);
+        verify(orderStore, times(1)).insert(written.capture());
+        assertEquals(List.of(first, second), written.getValue().stream().map(Order::getOrderReference).toList());
+        assertEquals(0, service.flush());
+    }
+
+    @Test
+    void flush_KeepsRemainingOrdersQueuedWhenIsolationHitsTransientFailure() {
+        OrderIngestionService service = createService(true, 8, 10);
+        String bad = service.accept(EMAIL, 7L, orderRequest);
+        String good = service.accept(EMAIL, 7L, orderRequest);
+        doThrow(new DataIntegrityViolationException("Cannot add or update a child row"))
+                .doThrow(new DataIntegrityViolationException("Cannot add or update a child row"))
+                .doThrow(new QueryTimeoutException("Statement cancelled due to timeout"))
+                .doNothing()
+                .when(orderStore).insert(anyList());
+
+        service.flush();
+
+        assertEquals(IngestionState.FAILED, service.getStatus(EMAIL, 7L, bad).state());
+        assertEquals(IngestionState.QUEUED, service.getStatus(EMAIL, 7L, good).state());
+
+        service.flush();
+
+        when(orderStore.findStatusForUser(good, 7L)).thenReturn(Optional.of(OrderStatus.NEW));
+        assertEquals(IngestionState.DURABLE, service.getStatus(EMAIL, 7L, good).state());
+        assertEquals(1.0, meterRegistry.get("orders.ingestion.failed").counter().count());
+    }
+
+    @Test
+    void getStatus_UnknownOrder() {
+        OrderIngestionService service = createService(true, 8, 10);
+        when(orderStore.findStatusForUser("ORD404", 7L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> service.getStatus(EMAIL, 7L, "ORD404"));
+    }
+
+    @Test
+    void getStatus_QueuedOrderOfAnotherUserIsNotVisible() {
+        OrderIngestionService service = createService(true, 8, 10);
+        String orderReference = service.accept(EMAIL, 7L, orderRequest);
+        when(orderStore.findStatusForUser(orderReference, 8L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> service.getStatus("other@example.com", 8L, orderReference));
+    }
+
+    private OrderIngestionService createService(boolean enabled, int capacity, int batchSize) {
+        return new OrderIngestionService(orderStore, userRepository, userCache, recentWriters,
+                new OrderReferenceGenerator(1), transactionManager, meterRegistry, enabled, capacity, batchSize, 3);
+    }
+}
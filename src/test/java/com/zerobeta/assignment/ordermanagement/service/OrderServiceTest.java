@@ -1,24 +1,33 @@
 package com.zerobeta.assignment.ordermanagement.service;
 
+import com.zerobeta.assignment.ordermanagement.dto.CursorPageDTO;
+import com.zerobeta.assignment.ordermanagement.dto.OrderHistoryItemDTO;
 import com.zerobeta.assignment.ordermanagement.dto.OrderRequestDTO;
+import com.zerobeta.assignment.ordermanagement.dto.OrderSummaryDTO;
 import com.zerobeta.assignment.ordermanagement.entity.Order;
+import com.zerobeta.assignment.ordermanagement.entity.OutboxEvent;
 import com.zerobeta.assignment.ordermanagement.entity.User;
 import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
 import com.zerobeta.assignment.ordermanagement.exception.EntityNotFoundException;
-import com.zerobeta.assignment.ordermanagement.repository.OrderRepository;
+import com.zerobeta.assignment.ordermanagement.repository.OutboxEventRepository;
 import com.zerobeta.assignment.ordermanagement.repository.UserRepository;
+import com.zerobeta.assignment.ordermanagement.store.OrderStore;
+import com.zerobeta.assignment.ordermanagement.util.OrderHistoryCursor;
+import com.zerobeta.assignment.ordermanagement.util.OrderReferenceGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -34,7 +43,19 @@ class OrderServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private OrderRepository orderRepository;
+    private OrderStore orderStore;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private OrderMetrics orderMetrics;
+
+    @Spy
+    private OrderReferenceGenerator orderReferenceGenerator = new OrderReferenceGenerator(1);
 
     private User user;
     private OrderRequestDTO orderRequestDTO;
@@ -43,6 +64,7 @@ class OrderServiceTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         user = new User();
+        user.setId(7L);
         user.setEmail("user@example.com");
         orderRequestDTO = new OrderRequestDTO("Test Item",2,"Point Pedro");
 
@@ -52,8 +74,7 @@ class OrderServiceTest {
     void placeOrder_Success() {
 
         String emailId = "user@example.com";
-        when(userRepository.findByEmail(emailId)).thenReturn(Optional.of(user));
-        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0)); // Return the order itself
+        mockCachedUser(emailId);
 
         Order order = orderService.placeOrder(emailId, orderRequestDTO);
 
@@ -65,13 +86,14 @@ class OrderServiceTest {
         assertEquals(orderRequestDTO.getShippingAddress(), order.getShippingAddress());
         assertNotNull(order.getOrderReference());
         assertTrue(order.getOrderReference().startsWith("ORD"));
+        verify(orderStore, times(1)).insert(List.of(order));
     }
 
     @Test
     void placeOrder_UserNotFound() {
 
         String emailId = "nonexistent@example.com";
-        when(userRepository.findByEmail(emailId)).thenReturn(Optional.empty());
+        when(userCache.findByEmail(emailId)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
                 orderService.placeOrder(emailId, orderRequestDTO)
@@ -79,22 +101,60 @@ class OrderServiceTest {
         assertEquals("User not found: " + emailId, exception.getMessage());
     }
 
+    @Test
+    void placeOrders_Success() {
+        String emailId = "user@example.com";
+        OrderRequestDTO secondRequest = new OrderRequestDTO("Second Item", 3, "Jaffna");
+        mockCachedUser(emailId);
+
+        List<Order> orders = orderService.placeOrders(emailId, List.of(orderRequestDTO, secondRequest));
+
+        assertEquals(2, orders.size());
+        assertEquals(orderRequestDTO.getItemName(), orders.get(0).getItemName());
+        assertEquals(secondRequest.getItemName(), orders.get(1).getItemName());
+        assertNotEquals(orders.get(0).getOrderReference(), orders.get(1).getOrderReference());
+        orders.forEach(order -> {
+            assertEquals(user, order.getUser());
+            assertEquals(OrderStatus.NEW, order.getStatus());
+        });
+        verify(userCache, times(1)).findByEmail(emailId);
+        verify(orderStore, times(1)).insert(orders);
+    }
+
+    @Test
+    void placeOrders_UserNotFound() {
+        String emailId = "nonexistent@example.com";
+        when(userCache.findByEmail(emailId)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> orderService.placeOrders(emailId, List.of(orderRequestDTO)));
+        verify(orderStore, never()).insert(any());
+    }
+
     @Test
     void cancelOrder_Success() {
-        // Arrange
         String emailId = "user@example.com";
         String orderReference = "ORD1234567890";
-        Order order = new Order();
-        order.setUser(user);
-        order.setStatus(OrderStatus.NEW);
-        order.setOrderReference(orderReference);
+        when(orderStore.updateOrderStatusForUser(orderReference, 7L, OrderStatus.NEW, OrderStatus.CANCELLED)).thenReturn(1);
+
+        orderService.cancelOrder(emailId, 7L, orderReference);
+
+        verify(orderStore, times(1)).updateOrderStatusForUser(orderReference, 7L, OrderStatus.NEW, OrderStatus.CANCELLED);
+        verify(orderStore, never()).findByOrderReference(any());
+        verify(outboxEventRepository, times(1)).save(any(OutboxEvent.class));
+        verify(userCache, never()).findByEmail(any());
+    }
 
-        when(orderRepository.findByOrderReference(orderReference)).thenReturn(Optional.of(order));
+    @Test
+    void cancelOrder_ResolvesUserIdByEmail() {
+        String emailId = "user@example.com";
+        String orderReference = "ORD1234567890";
+        mockCachedUser(emailId);
+        when(orderStore.updateOrderStatusForUser(orderReference, 7L, OrderStatus.NEW, OrderStatus.CANCELLED)).thenReturn(1);
 
         orderService.cancelOrder(emailId, orderReference);
 
-        assertEquals(OrderStatus.CANCELLED, order.getStatus());
-        verify(orderRepository, times(1)).save(order);
+        verify(orderStore, times(1)).updateOrderStatusForUser(orderReference, 7L, OrderStatus.NEW, OrderStatus.CANCELLED);
+        verify(outboxEventRepository, times(1)).save(any(OutboxEvent.class));
     }
 
     @Test
@@ -103,12 +163,14 @@ class OrderServiceTest {
         String emailId = "user@example.com";
         String orderReference = "ORD1234567890";
 
-        when(orderRepository.findByOrderReference(orderReference)).thenReturn(Optional.empty());
+        when(orderStore.findStatusForUser(orderReference, 7L)).thenReturn(Optional.empty());
+        when(orderStore.existsByOrderReference(orderReference)).thenReturn(false);
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
-                orderService.cancelOrder(emailId, orderReference)
+                orderService.cancelOrder(emailId, 7L, orderReference)
         );
         assertEquals("Order not found with reference: " + orderReference, exception.getMessage());
+        verify(outboxEventRepository, never()).save(any(OutboxEvent.class));
     }
 
     @Test
@@ -116,21 +178,31 @@ class OrderServiceTest {
         String emailId = "user@example.com";
         String orderReference = "ORD1234567890";
 
-        User orderUser = new User();
-        orderUser.setEmail("orderUser@example.com");
+        when(orderStore.findStatusForUser(orderReference, 7L)).thenReturn(Optional.empty());
+        when(orderStore.existsByOrderReference(orderReference)).thenReturn(true);
+
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
+                orderService.cancelOrder(emailId, 7L, orderReference)
+        );
+
+        assertEquals("Cannot cancel order. Order status is not NEW or does not belong to the user: " + emailId, exception.getMessage());
+        verify(orderMetrics, never()).cancelConflict();
+    }
 
-        Order order = new Order();
-        order.setUser(orderUser);
-        order.setStatus(OrderStatus.NEW);
-        order.setOrderReference(orderReference);
+    @Test
+    void cancelOrder_AlreadyDispatched() {
+        String emailId = "user@example.com";
+        String orderReference = "ORD1234567890";
 
-        when(orderRepository.findByOrderReference(orderReference)).thenReturn(Optional.of(order));
+        when(orderStore.findStatusForUser(orderReference, 7L)).thenReturn(Optional.of(OrderStatus.DISPATCHED));
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
-                orderService.cancelOrder(emailId, orderReference)
+                orderService.cancelOrder(emailId, 7L, orderReference)
         );
 
         assertEquals("Cannot cancel order. Order status is not NEW or does not belong to the user: " + emailId, exception.getMessage());
+        verify(orderMetrics, times(1)).cancelConflict();
+        verify(outboxEventRepository, never()).save(any(OutboxEvent.class));
     }
 
 
@@ -139,35 +211,62 @@ class OrderServiceTest {
 
         String emailId = "user@example.com";
         Pageable pageable = PageRequest.of(0, 10);
-        Order order = new Order();
-        order.setUser(user);
-        order.setStatus(OrderStatus.NEW);
-        order.setItemName("Test Item");
-        order.setQuantity(1);
-        order.setShippingAddress("Point Pedro");
+        OrderHistoryItemDTO order = new OrderHistoryItemDTO(1L, "ORD1234567890", "Test Item", 1, "Point Pedro",
+                OrderStatus.NEW, LocalDateTime.now());
 
-        Page<Order> orderPage = new PageImpl<>(List.of(order), pageable, 1);
-        when(orderRepository.findByUserEmail(emailId, pageable)).thenReturn(orderPage);
+        mockCachedUser(emailId);
+        when(orderStore.findHistoryPage(7L, pageable)).thenReturn(List.of(order));
+        when(orderStore.countForUser(7L)).thenReturn(1L);
 
-        Page<Order> result = orderService.getOrderHistory(emailId, 0, 10);
+        Page<OrderHistoryItemDTO> result = orderService.getOrderHistory(emailId, 0, 10);
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(orderRepository, times(1)).findByUserEmail(emailId, pageable);
+        verify(orderStore, times(1)).findHistoryPage(7L, pageable);
+    }
+
+    @Test
+    void getOrderHistory_TotalFromOrderCounts() {
+        String emailId = "user@example.com";
+        Pageable pageable = PageRequest.of(1, 2);
+        OrderHistoryItemDTO order = new OrderHistoryItemDTO(3L, "ORD1234567890", "Test Item", 1, "Point Pedro",
+                OrderStatus.NEW, LocalDateTime.now());
+        when(orderStore.findHistoryPage(7L, pageable)).thenReturn(List.of(order, order));
+        when(orderStore.countForUser(7L)).thenReturn(25L);
+
+        Page<OrderHistoryItemDTO> result = orderService.getOrderHistory(emailId, 7L, 1, 2);
+
+        assertEquals(25, result.getTotalElements());
+        assertEquals(13, result.getTotalPages());
+        verify(userCache, never()).findByEmail(any());
     }
 
     @Test
     void getOrderHistory_NoOrdersFound() {
         String emailId = "user@example.com";
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Order> orderPage = new PageImpl<>(List.of(), pageable, 0);
-        when(orderRepository.findByUserEmail(emailId, pageable)).thenReturn(orderPage);
+        mockCachedUser(emailId);
+        when(orderStore.findHistoryPage(7L, pageable)).thenReturn(List.of());
+        when(orderStore.countForUser(7L)).thenReturn(0L);
 
-        Page<Order> result = orderService.getOrderHistory(emailId, 0, 10);
+        Page<OrderHistoryItemDTO> result = orderService.getOrderHistory(emailId, 0, 10);
 
         assertNotNull(result);
         assertEquals(0, result.getTotalElements());
-        verify(orderRepository, times(1)).findByUserEmail(emailId, pageable);
+        verify(orderStore, times(1)).findHistoryPage(7L, pageable);
+    }
+
+    @Test
+    void getOrderSummary_FillsMissingStatuses() {
+        String emailId = "user@example.com";
+        when(orderStore.countByStatusForUser(7L)).thenReturn(Map.of(OrderStatus.NEW, 3L, OrderStatus.CANCELLED, 2L));
+
+        OrderSummaryDTO summary = orderService.getOrderSummary(emailId, 7L);
+
+        assertEquals(3L, summary.counts().get(OrderStatus.NEW));
+        assertEquals(0L, summary.counts().get(OrderStatus.DISPATCHED));
+        assertEquals(2L, summary.counts().get(OrderStatus.CANCELLED));
+        assertEquals(5, summary.total());
     }
 
     @Test
@@ -184,4 +283,50 @@ class OrderServiceTest {
         assertEquals("Invalid pagination parameters: pageNo must be >= 0 and pageSize must be > 0", exception.getMessage());
     }
 
+    @Test
+    void getOrderHistoryByCursor_FirstSliceHasNext() {
+        String emailId = "user@example.com";
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderHistoryItemDTO> orders = List.of(historyOrder(3L, now), historyOrder(2L, now), historyOrder(1L, now.minusMinutes(1)));
+        when(orderStore.findHistoryFirstSlice(7L, PageRequest.of(0, 3))).thenReturn(orders);
+
+        CursorPageDTO<OrderHistoryItemDTO> result = orderService.getOrderHistoryByCursor(emailId, 7L, null, 2);
+
+        assertEquals(2, result.getSize());
+        assertTrue(result.isHasNext());
+        assertEquals(new OrderHistoryCursor(now, 2L), OrderHistoryCursor.decode(result.getNextCursor()));
+        verify(userCache, never()).findByEmail(any());
+    }
+
+    @Test
+    void getOrderHistoryByCursor_LastSlice() {
+        String emailId = "user@example.com";
+        LocalDateTime now = LocalDateTime.now();
+        String cursor = new OrderHistoryCursor(now, 2L).encode();
+        mockCachedUser(emailId);
+        when(orderStore.findHistorySliceAfter(7L, now, 2L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(historyOrder(1L, now.minusMinutes(1))));
+
+        CursorPageDTO<OrderHistoryItemDTO> result = orderService.getOrderHistoryByCursor(emailId, null, cursor, 2);
+
+        assertEquals(1, result.getSize());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getOrderHistoryByCursor_InvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () ->
+                orderService.getOrderHistoryByCursor("user@example.com", 7L, "not-a-cursor", 10));
+    }
+
+    private void mockCachedUser(String emailId) {
+        when(userCache.findByEmail(emailId)).thenReturn(Optional.of(new UserCache.CachedUser(7L, emailId, "encodedPassword")));
+        when(userRepository.getReferenceById(7L)).thenReturn(user);
+    }
+
+    private OrderHistoryItemDTO historyOrder(Long id, LocalDateTime placementTimestamp) {
+        return new OrderHistoryItemDTO(id, "ORD" + id, "Test Item", 1, "Point Pedro", OrderStatus.NEW, placementTimestamp);
+    }
+
 }
@@ -0,0 +1,68 @@
+package com.zerobeta.assignment.ordermanagement.service;
+
+import com.zerobeta.assignment.ordermanagement.entity.User;
+import com.zerobeta.assignment.ordermanagement.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserCache userCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        userCache = new UserCache(userRepository, meterRegistry, 100, 300);
+    }
+
+    @Test
+    void findByEmail_LoadsOnceThenServesFromCache() {
+        User user = new User("user@gmail.com", "encodedPassword", "Ruban", "Thaya");
+        user.setId(1L);
+        when(userRepository.findByEmail("user@gmail.com")).thenReturn(Optional.of(user));
+
+        UserCache.CachedUser first = userCache.findByEmail("user@gmail.com").orElseThrow();
+        UserCache.CachedUser second = userCache.findByEmail("user@gmail.com").orElseThrow();
+
+        assertEquals(new UserCache.CachedUser(1L, "user@gmail.com", "encodedPassword"), first);
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByEmail("user@gmail.com");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void findByEmail_UnknownEmailIsNotCached() {
+        when(userRepository.findByEmail("new@gmail.com")).thenReturn(Optional.empty());
+
+        assertTrue(userCache.findByEmail("new@gmail.com").isEmpty());
+        assertTrue(userCache.findByEmail("new@gmail.com").isEmpty());
+
+        verify(userRepository, times(2)).findByEmail("new@gmail.com");
+    }
+
+    @Test
+    void invalidate_ReloadsFromRepository() {
+        User user = new User("user@gmail.com", "encodedPassword", "Ruban", "Thaya");
+        user.setId(1L);
+        when(userRepository.findByEmail("user@gmail.com")).thenReturn(Optional.of(user));
+
+        userCache.findByEmail("user@gmail.com");
+        userCache.invalidate("user@gmail.com");
+        userCache.findByEmail("user@gmail.com");
+
+        verify(userRepository, times(2)).findByEmail("user@gmail.com");
+    }
+}
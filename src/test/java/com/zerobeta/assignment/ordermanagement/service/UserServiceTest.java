@@ -11,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
@@ -25,6 +26,12 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private RegisteredEmails registeredEmails;
+
     @InjectMocks
     private UserService userService;
 
@@ -37,13 +44,33 @@ class UserServiceTest {
     void testSignup_UserAlreadyExists() {
 
         SignUpRequestDTO signUpRequest = new SignUpRequestDTO("user@gmail.com", "password", "Ruban", "Thaya");
-        when(userRepository.findByEmail(signUpRequest.getEmail())).thenReturn(Optional.of(new User()));
+        when(registeredEmails.mightExist(signUpRequest.getEmail())).thenReturn(true);
+        when(userCache.findByEmail(signUpRequest.getEmail()))
+                .thenReturn(Optional.of(new UserCache.CachedUser(1L, "user@gmail.com", "encodedPassword")));
+
+        UserAlreadyExistsException exception = assertThrows(UserAlreadyExistsException.class, () -> {
+            userService.signup(signUpRequest);
+        });
+
+        assertEquals("Email Already in Use: user@gmail.com", exception.getMessage());
+        verify(passwordEncoder, never()).encode(anyString());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void testSignup_ConcurrentDuplicateRejectedByConstraint() {
+
+        SignUpRequestDTO signUpRequest = new SignUpRequestDTO("user@gmail.com", "password", "Ruban", "Thaya");
+        when(registeredEmails.mightExist(signUpRequest.getEmail())).thenReturn(false);
+        when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("Duplicate entry"));
 
         UserAlreadyExistsException exception = assertThrows(UserAlreadyExistsException.class, () -> {
             userService.signup(signUpRequest);
         });
 
         assertEquals("Email Already in Use: user@gmail.com", exception.getMessage());
+        verify(registeredEmails, never()).add(anyString());
     }
 
     @Test
@@ -56,24 +83,29 @@ class UserServiceTest {
         user.setFirstName(signUpRequest.getFirstName());
         user.setLastName(signUpRequest.getLastName());
 
-        when(userRepository.findByEmail(signUpRequest.getEmail())).thenReturn(Optional.empty());
+        when(registeredEmails.mightExist(signUpRequest.getEmail())).thenReturn(false);
         when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(user);
 
         userService.signup(signUpRequest);
 
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(userCache, never()).findByEmail(anyString());
         verify(userRepository, times(1)).save(any(User.class));
+        verify(registeredEmails, times(1)).add("user@gmail.com");
+        verify(userCache, times(1)).invalidate("user@gmail.com");
         assertEquals("encodedPassword", user.getPassword());
     }
 
     @Test
     void testLoadUserByUsername_UserFound() {
-        User user = new User("user@gmail.com", "password", "Ruban", "Thaya");
-        when(userRepository.findByEmail("user@gmail.com")).thenReturn(Optional.of(user));
+        when(userCache.findByEmail("user@gmail.com"))
+                .thenReturn(Optional.of(new UserCache.CachedUser(1L, "user@gmail.com", "password")));
 
         UserInfoDetails userInfoDetails = (UserInfoDetails) userService.loadUserByUsername("user@gmail.com");
 
         assertNotNull(userInfoDetails);
+        assertEquals(1L, userInfoDetails.getId());
         assertEquals("user@gmail.com", userInfoDetails.getUsername());
         assertEquals("password", userInfoDetails.getPassword());
     }
@@ -81,7 +113,7 @@ class UserServiceTest {
     // Test for loadUserByUsername method (User not found case)
     @Test
     void testLoadUserByUsername_UserNotFound() {
-        when(userRepository.findByEmail("nonexistent@example.com")).thenReturn(Optional.empty());
+        when(userCache.findByEmail("nonexistent@example.com")).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> {
             userService.loadUserByUsername("nonexistent@example.com");
@@ -0,0 +1,102 @@
+package com.zerobeta.assignment.ordermanagement.store;
+
+import com.zerobeta.assignment.ordermanagement.entity.Order;
+import com.zerobeta.assignment.ordermanagement.entity.User;
+import com.zerobeta.assignment.ordermanagement.entity.UserOrderCount;
+import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+import com.zerobeta.assignment.ordermanagement.repository.OrderRepository;
+import com.zerobeta.assignment.ordermanagement.repository.UserOrderCountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class JpaOrderStoreTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private UserOrderCountRepository userOrderCountRepository;
+
+    private JpaOrderStore orderStore;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        orderStore = new JpaOrderStore(orderRepository, userOrderCountRepository);
+    }
+
+    @Test
+    void insert_OneUserIncrementsCountDirectly() {
+        List<Order> orders = List.of(order(7L, 1L, NOW), order(7L, 2L, NOW));
+
+        orderStore.insert(orders);
+
+        verify(orderRepository, times(1)).saveAll(orders);
+        verify(userOrderCountRepository, times(1)).increment(7L, OrderStatus.NEW, 2);
+        verify(orderRepository, never()).flush();
+    }
+
+    @Test
+    void insert_SeveralUsersCountsInsertedRows() {
+        List<Order> orders = List.of(order(7L, 1L, NOW.plusMinutes(1)), order(8L, 2L, NOW));
+
+        orderStore.insert(orders);
+
+        verify(orderRepository, times(1)).flush();
+        verify(userOrderCountRepository, times(1)).incrementForOrders(List.of(1L, 2L), NOW);
+        verify(userOrderCountRepository, never()).increment(anyLong(), any(), anyLong());
+    }
+
+    @Test
+    void updateOrderStatusForUser_TransitionsCountOnlyWhenUpdated() {
+        when(orderRepository.updateOrderStatusForUser("ORD1", 7L, OrderStatus.NEW, OrderStatus.CANCELLED)).thenReturn(1);
+
+        assertEquals(1, orderStore.updateOrderStatusForUser("ORD1", 7L, OrderStatus.NEW, OrderStatus.CANCELLED));
+        assertEquals(0, orderStore.updateOrderStatusForUser("ORD2", 7L, OrderStatus.NEW, OrderStatus.CANCELLED));
+
+        verify(userOrderCountRepository, times(1)).transition(7L, OrderStatus.NEW, OrderStatus.CANCELLED, 1);
+    }
+
+    @Test
+    void updateOrderStatusByIds_TransitionsCountsOnlyWhenAllUpdated() {
+        List<Long> ids = List.of(1L, 2L);
+        when(orderRepository.updateOrderStatusByIds(ids, NOW, OrderStatus.NEW, OrderStatus.DISPATCHED)).thenReturn(1, 2);
+
+        assertEquals(1, orderStore.updateOrderStatusByIds(ids, NOW, OrderStatus.NEW, OrderStatus.DISPATCHED));
+        assertEquals(2, orderStore.updateOrderStatusByIds(ids, NOW, OrderStatus.NEW, OrderStatus.DISPATCHED));
+
+        verify(userOrderCountRepository, times(1)).transitionOrders(ids, NOW, OrderStatus.NEW, OrderStatus.DISPATCHED);
+    }
+
+    @Test
+    void countByStatusForUser_MapsCountRows() {
+        when(userOrderCountRepository.findByUserId(7L)).thenReturn(List.of(
+                new UserOrderCount(new UserOrderCount.Key(7L, OrderStatus.NEW), 3),
+                new UserOrderCount(new UserOrderCount.Key(7L, OrderStatus.CANCELLED), 2)));
+
+        assertEquals(Map.of(OrderStatus.NEW, 3L, OrderStatus.CANCELLED, 2L), orderStore.countByStatusForUser(7L));
+    }
+
+    private static Order order(Long userId, Long id, LocalDateTime placementTimestamp) {
+        User user = new User();
+        user.setId(userId);
+        Order order = new Order();
+        order.setId(id);
+        order.setUser(user);
+        order.setPlacementTimestamp(placementTimestamp);
+        return order;
+    }
+}
@@ -0,0 +1,345 @@
+package com.zerobeta.assignment.ordermanagement.store;
+
+import com.zerobeta.assignment.ordermanagement.dto.DispatchCandidateDTO;
+import com.zerobeta.assignment.ordermanagement.dto.OrderHistoryItemDTO;
+import com.zerobeta.assignment.ordermanagement.entity.Order;
+import com.zerobeta.assignment.ordermanagement.entity.User;
+import com.zerobeta.assignment.ordermanagement.enums.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogStructuredOrderStoreTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @TempDir
+    private Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LogStructuredOrderStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        meterRegistry = new SimpleMeterRegistry();
+        store = open(4096);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        store.close();
+    }
+
+    @Test
+    void insert_AssignsIdsAndIndexesOrders() {
+        Order first = order(7L, "ORD1", NOW);
+        Order second = order(7L, "ORD2", NOW.plusMinutes(1));
+        Order other = order(8L, "ORD3", NOW.plusMinutes(2));
+
+        store.insert(List.of(first, second, other));
+
+        assertEquals(List.of(1L, 2L, 3L), Stream.of(first, second, other).map(Order::getId).toList());
+        Order found = store.findByOrderReference("ORD2").orElseThrow();
+        assertEquals(2L, found.getId());
+        assertEquals(7L, found.getUser().getId());
+        assertEquals(OrderStatus.NEW, found.getStatus());
+        assertEquals(List.of("ORD2", "ORD1"), references(store.findHistoryFirstSlice(7L, PageRequest.of(0, 10))));
+        assertEquals(List.of("ORD1"), references(store.findHistorySliceAfter(7L, NOW.plusMinutes(1), 2L, PageRequest.of(0, 10))));
+        assertEquals(Map.of(OrderStatus.NEW, 2L), store.countByStatusForUser(7L));
+        assertEquals(1, store.countForUser(8L));
+        assertEquals(3, store.countByStatus(OrderStatus.NEW));
+        assertEquals(NOW, store.findOldestPlacementByStatus(OrderStatus.NEW));
+    }
+
+    @Test
+    void insert_RejectsDuplicateReference() {
+        store.insert(List.of(order(7L, "ORD1", NOW)));
+
+        assertThrows(DataIntegrityViolationException.class, () -> store.insert(List.of(order(7L, "ORD1", NOW))));
+        assertEquals(1, store.countForUser(7L));
+    }
+
+    @Test
+    void updateOrderStatusForUser_ChecksOwnerAndStatus() {
+        store.insert(List.of(order(7L, "ORD1", NOW)));
+
+        assertEquals(0, store.updateOrderStatusForUser("ORD1", 8L, OrderStatus.NEW, OrderStatus.CANCELLED));
+        assertEquals(1, store.updateOrderStatusForUser("ORD1", 7L, OrderStatus.NEW, OrderStatus.CANCELLED));
+        assertEquals(0, store.updateOrderStatusForUser("ORD1", 7L, OrderStatus.NEW, OrderStatus.CANCELLED));
+
+        assertEquals(OrderStatus.CANCELLED, store.findStatusForUser("ORD1", 7L).orElseThrow());
+        assertTrue(store.findStatusForUser("ORD1", 8L).isEmpty());
+        assertEquals(Map.of(OrderStatus.CANCELLED, 1L), store.countByStatusForUser(7L));
+        assertEquals(1, store.findByOrderReference("ORD1").orElseThrow().getVersion());
+    }
+
+    @Test
+    void updateOrderStatusByIds_UpdatesAllOrNone() {
+        store.insert(List.of(order(7L, "ORD1", NOW), order(7L, "ORD2", NOW), order(8L, "ORD3", NOW)));
+        store.updateOrderStatusForUser("ORD2", 7L, OrderStatus.NEW, OrderStatus.CANCELLED);
+
+        List<DispatchCandidateDTO> candidates = store.findDispatchCandidates(OrderStatus.NEW, NOW, 0, 3, PageRequest.of(0, 10));
+        assertEquals(List.of(1L, 3L), candidates.stream().map(DispatchCandidateDTO::id).toList());
+        assertEquals(1L, store.findMinIdByStatus(OrderStatus.NEW, NOW));
+        assertEquals(3L, store.findMaxIdByStatus(OrderStatus.NEW, NOW));
+
+        assertEquals(0, store.updateOrderStatusByIds(List.of(1L, 2L, 3L), NOW, OrderStatus.NEW, OrderStatus.DISPATCHED));
+        assertEquals(0, store.countByStatus(OrderStatus.DISPATCHED));
+
+        assertEquals(2, store.updateOrderStatusByIds(List.of(1L, 3L), NOW, OrderStatus.NEW, OrderStatus.DISPATCHED));
+        assertEquals(Map.of(OrderStatus.DISPATCHED, 1L, OrderStatus.CANCELLED, 1L), store.countByStatusForUser(7L));
+        assertNull(store.findOldestPlacementByStatus(OrderStatus.NEW));
+    }
+
+    @Test
+    void commit_AppliesChangesOnlyWhenTheTransactionCommits() {
+        store.insert(List.of(order(7L, "ORD1", NOW)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        store.insert(List.of(order(7L, "ORD2", NOW)));
+        store.updateOrderStatusForUser("ORD1", 7L, OrderStatus.NEW, OrderStatus.CANCELLED);
+        assertFalse(store.existsByOrderReference("ORD2"));
+        assertEquals(OrderStatus.NEW, store.findStatusForUser("ORD1", 7L).orElseThrow());
+        commit();
+
+        assertTrue(store.existsByOrderReference("ORD2"));
+        assertEquals(Map.of(OrderStatus.NEW, 1L, OrderStatus.CANCELLED, 1L), store.countByStatusForUser(7L));
+    }
+
+    @Test
+    void rollback_DropsInsertAndStatusChange() {
+        store.insert(List.of(order(7L, "ORD1", NOW)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        store.insert(List.of(order(7L, "ORD2", NOW)));
+        store.updateOrderStatusForUser("ORD1", 7L, OrderStatus.NEW, OrderStatus.CANCELLED);
+        rollback();
+
+        assertFalse(store.existsByOrderReference("ORD2"));
+        assertEquals(Map.of(OrderStatus.NEW, 1L), store.countByStatusForUser(7L));
+        assertEquals(1, store.updateOrderStatusForUser("ORD1", 7L, OrderStatus.NEW, OrderStatus.CANCELLED));
+        store.insert(List.of(order(7L, "ORD2", NOW)));
+        assertTrue(store.existsByOrderReference("ORD2"));
+    }
+
+    @Test
+    void commit_FailsWhenTheLogCannotBeAppended() throws IOException {
+        // Starts over with small segments, so a large enough record cannot be appended
+        store.close();
+        Files.delete(LogSegment.path(directory, 1));
+        store = reopen(256);
+        store.insert(List.of(order(7L, "ORD1", NOW)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        Order oversized = order(7L, "ORD2", NOW);
+        oversized.setShippingAddress("x".repeat(512));
+        store.insert(List.of(oversized));
+        store.updateOrderStatusForUser("ORD1", 7L, OrderStatus.NEW, OrderStatus.CANCELLED);
+        List<TransactionSynchronization> synchronizations = endTransaction();
+
+        // The exception reaches the transaction manager before the database commits, so it rolls back
+        assertThrows(RuntimeException.class, () -> synchronizations.forEach(s -> s.beforeCommit(false)));
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertFalse(store.existsByOrderReference("ORD2"));
+        assertEquals(1, store.updateOrderStatusForUser("ORD1", 7L, OrderStatus.NEW, OrderStatus.CANCELLED));
+        store = reopen(256);
+        assertFalse(store.existsByOrderReference("ORD2"));
+        assertEquals(OrderStatus.CANCELLED, store.findStatusForUser("ORD1", 7L).orElseThrow());
+    }
+
+    @Test
+    void commit_AppliesChangesOnlyAfterTheDatabaseCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        store.insert(List.of(order(7L, "ORD1", NOW)));
+        List<TransactionSynchronization> synchronizations = endTransaction();
+
+        synchronizations.forEach(s -> s.beforeCommit(false));
+        assertFalse(store.existsByOrderReference("ORD1"));
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertTrue(store.existsByOrderReference("ORD1"));
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    @Test
+    void pendingChanges_ReserveOrdersAndReferences() {
+        store.insert(List.of(order(7L, "ORD1", NOW)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        store.insert(List.of(order(7L, "ORD2", NOW)));
+        store.updateOrderStatusForUser("ORD1", 7L, OrderStatus.NEW, OrderStatus.CANCELLED);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // Another writer waits for the open transaction and gives up after the lock timeout
+        assertThrows(DataIntegrityViolationException.class, () -> store.insert(List.of(order(7L, "ORD2", NOW))));
+        assertThrows(CannotAcquireLockException.class,
+                () -> store.updateOrderStatusByIds(List.of(1L), NOW, OrderStatus.NEW, OrderStatus.DISPATCHED));
+
+        commit(synchronizations);
+        assertEquals(0, store.updateOrderStatusByIds(List.of(1L), NOW, OrderStatus.NEW, OrderStatus.DISPATCHED));
+    }
+
+    @Test
+    void reopen_ReplaysTheLog() throws IOException {
+        store.insert(List.of(order(7L, "ORD1", NOW), order(7L, "ORD2", NOW.plusMinutes(1))));
+        store.updateOrderStatusForUser("ORD1", 7L, OrderStatus.NEW, OrderStatus.CANCELLED);
+        TransactionSynchronizationManager.initSynchronization();
+        store.insert(List.of(order(8L, "ORD3", NOW)));
+        rollback();
+
+        store = reopen(4096);
+
+        assertEquals(OrderStatus.CANCELLED, store.findStatusForUser("ORD1", 7L).orElseThrow());
+        assertEquals(List.of("ORD2", "ORD1"), references(store.findHistoryPage(7L, PageRequest.of(0, 10))));
+        assertFalse(store.existsByOrderReference("ORD3"));
+        Order next = order(8L, "ORD4", NOW);
+        store.insert(List.of(next));
+        // The id of the rolled-back order was never visible, so it is handed out again
+        assertEquals(3L, next.getId());
+    }
+
+    @Test
+    void reopen_DiscardsTornRecord() throws IOException {
+        store.insert(List.of(order(7L, "ORD1", NOW)));
+        store.insert(List.of(order(7L, "ORD2", NOW)));
+        store.close();
+
+        // Corrupts the last byte of the second record, as a crash in the middle of its write would
+        Path segment = LogSegment.path(directory, 1);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer content = ByteBuffer.allocate((int) channel.size());
+            channel.read(content, 0);
+            int last = content.capacity() - 1;
+            while (content.get(last) == 0) {
+                last--;
+            }
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) (content.get(last) ^ 0x5A)}), last);
+        }
+
+        store = open(4096);
+
+        assertTrue(store.existsByOrderReference("ORD1"));
+        assertFalse(store.existsByOrderReference("ORD2"));
+        store.insert(List.of(order(7L, "ORD3", NOW)));
+        store = reopen(4096);
+        assertEquals(List.of("ORD3", "ORD1"), references(store.findHistoryFirstSlice(7L, PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void compact_RewritesSealedSegments() throws IOException {
+        // Starts over with small segments, so a few orders fill several of them
+        store.close();
+        Files.delete(LogSegment.path(directory, 1));
+        store = reopen(256);
+        for (int i = 1; i <= 10; i++) {
+            store.insert(List.of(order(7L, "ORD" + i, NOW.plusMinutes(i))));
+        }
+        store.updateOrderStatusByIds(List.of(1L, 2L, 3L), NOW, OrderStatus.NEW, OrderStatus.DISPATCHED);
+        TransactionSynchronizationManager.initSynchronization();
+        store.insert(List.of(order(7L, "ORD11", NOW)));
+        rollback();
+        double segmentsBefore = meterRegistry.get("orders.logstore.segments").gauge().value();
+        assertTrue(segmentsBefore > 2);
+
+        store.compact();
+
+        assertEquals(1.0, meterRegistry.get("orders.logstore.compactions").counter().count());
+        assertEquals(2.0, meterRegistry.get("orders.logstore.segments").gauge().value());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+
+        store = reopen(256);
+        assertEquals(10, store.countForUser(7L));
+        assertEquals(3, store.countByStatus(OrderStatus.DISPATCHED));
+        assertEquals(7, store.countByStatus(OrderStatus.NEW));
+        // The snapshot keeps the next id, so the id of the rolled-back order is not handed out again
+        Order next = order(7L, "ORD11", NOW);
+        store.insert(List.of(next));
+        assertEquals(12L, next.getId());
+    }
+
+    @Test
+    void streamForExport_ReturnsOrdersInWindowOldestFirst() {
+        store.insert(List.of(order(7L, "ORD1", NOW), order(7L, "ORD2", NOW.plusDays(1)), order(7L, "ORD3", NOW.plusDays(2))));
+
+        try (Stream<OrderHistoryItemDTO> rows = store.streamForExport(7L, NOW, NOW.plusDays(2))) {
+            assertEquals(List.of("ORD1", "ORD2"), references(rows.toList()));
+        }
+    }
+
+    private LogStructuredOrderStore open(int segmentBytes) throws IOException {
+        return new LogStructuredOrderStore(directory, segmentBytes, true, 2, 50, meterRegistry);
+    }
+
+    private LogStructuredOrderStore reopen(int segmentBytes) throws IOException {
+        store.close();
+        meterRegistry = new SimpleMeterRegistry();
+        return open(segmentBytes);
+    }
+
+    /**
+     * Runs the synchronization callbacks of the current transaction as a successful commit does.
+     */
+    private static void commit() {
+        commit(endTransaction());
+    }
+
+    private static void commit(List<TransactionSynchronization> synchronizations) {
+        synchronizations.forEach(s -> s.beforeCommit(false));
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private static void rollback() {
+        endTransaction().forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+
+    private static List<TransactionSynchronization> endTransaction() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        return synchronizations;
+    }
+
+    private static List<String> references(List<OrderHistoryItemDTO> orders) {
+        return orders.stream().map(OrderHistoryItemDTO::orderReference).toList();
+    }
+
+    private static Order order(Long userId, String orderReference, LocalDateTime placementTimestamp) {
+        User user = new User();
+        user.setId(userId);
+        Order order = new Order();
+        order.setUser(user);
+        order.setOrderReference(orderReference);
+        order.setItemName("Item");
+        order.setQuantity(1);
+        order.setShippingAddress("Jaffna");
+        order.setStatus(OrderStatus.NEW);
+        order.setPlacementTimestamp(placementTimestamp);
+        return order;
+    }
+}
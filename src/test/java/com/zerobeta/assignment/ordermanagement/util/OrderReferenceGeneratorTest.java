@@ -0,0 +1,145 @@
+package com.zerobeta.assignment.ordermanagement.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderReferenceGeneratorTest {
+
+    @Test
+    public void testReferenceFormat() {
+        String reference = new OrderReferenceGenerator(0).nextReference();
+
+        assertTrue(reference.matches("ORD[0-9A-Z]{13}"), "Unexpected reference format: " + reference);
+    }
+
+    @Test
+    public void testReferencesAreSortedInGenerationOrder() {
+        OrderReferenceGenerator generator = new OrderReferenceGenerator(0);
+
+        String previous = generator.nextReference();
+        for (int i = 0; i < 20_000; i++) {
+            String next = generator.nextReference();
+            assertTrue(next.compareTo(previous) > 0, next + " should sort after " + previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    public void testReferencesAreUniqueAcrossThreads() throws Exception {
+        OrderReferenceGenerator generator = new OrderReferenceGenerator(0);
+        Set<String> references = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = 20_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        references.add(generator.nextReference());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(threads * perThread, references.size());
+    }
+
+    @Test
+    public void testReferencesAreUniqueAcrossNodes() {
+        OrderReferenceGenerator node1 = new OrderReferenceGenerator(1);
+        OrderReferenceGenerator node2 = new OrderReferenceGenerator(2);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertNotEquals(node1.nextReference(), node2.nextReference());
+        }
+    }
+
+    @Test
+    public void testGeneratedAtMillis() {
+        long before = System.currentTimeMillis();
+        String reference = new OrderReferenceGenerator(5).nextReference();
+        long after = System.currentTimeMillis();
+
+        long generatedAt = OrderReferenceGenerator.generatedAtMillis(reference).orElseThrow();
+        assertTrue(generatedAt >= before && generatedAt <= after + OrderReferenceGenerator.MAX_LEAD_MILLIS,
+                "Unexpected generation time: " + generatedAt);
+    }
+
+    @Test
+    public void testRestartedNodeContinuesAfterPreviousRun() {
+        OrderReferenceGenerator previousRun = new OrderReferenceGenerator(4);
+        String last = null;
+        for (int i = 0; i < 100_000; i++) {
+            last = previousRun.nextReference();
+        }
+
+        String first = new OrderReferenceGenerator(4).nextReference();
+        assertTrue(first.compareTo(last) > 0, first + " should sort after " + last);
+    }
+
+    @Test
+    public void testLeadOverClockIsBounded() {
+        OrderReferenceGenerator generator = new OrderReferenceGenerator(0);
+        for (int i = 0; i < 100_000; i++) {
+            generator.nextReference();
+        }
+
+        long generatedAt = OrderReferenceGenerator.generatedAtMillis(generator.nextReference()).orElseThrow();
+        assertTrue(generatedAt <= System.currentTimeMillis() + OrderReferenceGenerator.MAX_LEAD_MILLIS,
+                "Generator ran too far ahead: " + generatedAt);
+    }
+
+    @Test
+    public void testGeneratedAtMillisOfForeignReference() {
+        assertTrue(OrderReferenceGenerator.generatedAtMillis("ORD202401011200000001").isEmpty());
+        assertTrue(OrderReferenceGenerator.generatedAtMillis("ORD0ab12cd34ef56").isEmpty());
+        assertTrue(OrderReferenceGenerator.generatedAtMillis("XYZ0AB12CD34EF56").isEmpty());
+        assertTrue(OrderReferenceGenerator.generatedAtMillis(null).isEmpty());
+    }
+
+    @Test
+    public void testPlacementTimestampOf() {
+        String reference = new OrderReferenceGenerator(3).nextReference();
+        long generatedAt = OrderReferenceGenerator.generatedAtMillis(reference).orElseThrow();
+
+        LocalDateTime placedAt = OrderReferenceGenerator.placementTimestampOf(reference);
+        assertEquals(generatedAt, placedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        assertEquals(placedAt, OrderReferenceGenerator.placementTimestampOf(reference));
+        assertThrows(IllegalArgumentException.class, () -> OrderReferenceGenerator.placementTimestampOf("ORD202401011200000001"));
+    }
+
+    @Test
+    public void testPlacementWindowContainsPlacementTime() {
+        LocalDateTime placedAt = LocalDateTime.now();
+        String reference = new OrderReferenceGenerator(0).nextReference();
+
+        PlacementWindow window = PlacementWindow.ofReference(reference);
+        assertFalse(placedAt.isBefore(window.from()));
+        assertFalse(placedAt.isAfter(window.to()));
+        assertEquals(PlacementWindow.UNBOUNDED, PlacementWindow.ofReference("ORD202401011200000001"));
+    }
+
+    @Test
+    public void testInvalidNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderReferenceGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new OrderReferenceGenerator(OrderReferenceGenerator.MAX_NODE_ID + 1));
+    }
+}